@@ -0,0 +1,151 @@
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+import javax.imageio.ImageIO;
+
+/**
+ * Build-time sprite atlas packer.
+ * Run by Maven (process-resources) as a single-file Java program:
+ *
+ *   java AtlasPacker.java inputDir outputDir pattern...
+ *
+ * Packs every PNG in inputDir that matches one of the glob patterns into
+ * outputDir/sprites.png and writes the region index to
+ * outputDir/sprites.properties as "name=x,y,width,height".
+ */
+public class AtlasPacker {
+
+    // Space between sprites; the border pixels are copied into it so
+    // scaled draws do not bleed in pixels from the neighbouring sprite
+    private static final int PADDING = 2;
+
+    private static class Entry {
+        String name;
+        BufferedImage image;
+        int x;
+        int y;
+    }
+
+    private static class Shelf {
+        int y;
+        int height;
+        int usedWidth;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: java AtlasPacker.java inputDir outputDir pattern...");
+            System.exit(1);
+        }
+
+        Path inputDir = Path.of(args[0]);
+        Path outputDir = Path.of(args[1]);
+
+        List<PathMatcher> matchers = new ArrayList<>();
+        for (int i = 2; i < args.length; i++) {
+            matchers.add(FileSystems.getDefault().getPathMatcher("glob:" + args[i]));
+        }
+
+        // Collect the sprites to pack
+        List<Entry> entries = new ArrayList<>();
+        try (Stream<Path> files = Files.list(inputDir)) {
+            for (Path file : (Iterable<Path>) files.sorted()::iterator) {
+                Path fileName = file.getFileName();
+                if (matchers.stream().noneMatch(m -> m.matches(fileName))) {
+                    continue;
+                }
+
+                Entry entry = new Entry();
+                entry.name = fileName.toString().replaceFirst("\\.png$", "");
+                entry.image = ImageIO.read(file.toFile());
+                if (entry.image == null) {
+                    throw new IOException("Could not decode " + file);
+                }
+                entries.add(entry);
+            }
+        }
+
+        if (entries.isEmpty()) {
+            throw new IOException("No sprites matched in " + inputDir);
+        }
+
+        // Tallest first, then by name so the layout is reproducible
+        entries.sort(Comparator.comparingInt((Entry e) -> -e.image.getHeight())
+                .thenComparing(e -> e.name));
+
+        // The atlas is as wide as the widest sprite; smaller sprites fill
+        // the leftover space of existing shelves before a new one is opened
+        int atlasWidth = 0;
+        for (Entry entry : entries) {
+            atlasWidth = Math.max(atlasWidth, entry.image.getWidth() + PADDING * 2);
+        }
+
+        List<Shelf> shelves = new ArrayList<>();
+        int atlasHeight = 0;
+        for (Entry entry : entries) {
+            int w = entry.image.getWidth() + PADDING * 2;
+            int h = entry.image.getHeight() + PADDING * 2;
+
+            Shelf target = null;
+            for (Shelf shelf : shelves) {
+                if (shelf.height >= h && atlasWidth - shelf.usedWidth >= w) {
+                    target = shelf;
+                    break;
+                }
+            }
+            if (target == null) {
+                target = new Shelf();
+                target.y = atlasHeight;
+                target.height = h;
+                shelves.add(target);
+                atlasHeight += h;
+            }
+
+            entry.x = target.usedWidth + PADDING;
+            entry.y = target.y + PADDING;
+            target.usedWidth += w;
+        }
+
+        // Draw the sprites with extruded borders
+        BufferedImage atlas = new BufferedImage(atlasWidth, atlasHeight, BufferedImage.TYPE_INT_ARGB);
+        for (Entry entry : entries) {
+            BufferedImage image = entry.image;
+            int w = image.getWidth();
+            int h = image.getHeight();
+            for (int py = -PADDING; py < h + PADDING; py++) {
+                int sy = Math.max(0, Math.min(h - 1, py));
+                for (int px = -PADDING; px < w + PADDING; px++) {
+                    int sx = Math.max(0, Math.min(w - 1, px));
+                    atlas.setRGB(entry.x + px, entry.y + py, image.getRGB(sx, sy));
+                }
+            }
+        }
+
+        Files.createDirectories(outputDir);
+        ImageIO.write(atlas, "png", outputDir.resolve("sprites.png").toFile());
+
+        // Region index, sorted by name
+        entries.sort(Comparator.comparing(e -> e.name));
+        File indexFile = outputDir.resolve("sprites.properties").toFile();
+        try (PrintWriter out = new PrintWriter(indexFile, StandardCharsets.UTF_8)) {
+            out.println("# Generated by AtlasPacker - name=x,y,width,height");
+            for (Entry entry : entries) {
+                out.println(entry.name + "=" + entry.x + "," + entry.y + ","
+                        + entry.image.getWidth() + "," + entry.image.getHeight());
+            }
+        }
+
+        System.out.println("Packed " + entries.size() + " sprites into "
+                + atlasWidth + "x" + atlasHeight + " atlas");
+    }
+}
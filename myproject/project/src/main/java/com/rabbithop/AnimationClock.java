@@ -0,0 +1,49 @@
+package com.rabbithop;
+
+/**
+ * Shared clock for sprite animations.
+ * The game loop advances it once per update, and animated entities derive
+ * their current frame from the elapsed time instead of keeping their own
+ * frame timers. Animation cost therefore does not grow with entity count.
+ */
+public final class AnimationClock {
+
+    // Written by the game loop, read when rendering
+    private static volatile double time = 0;
+
+    private AnimationClock() {
+    }
+
+    /**
+     * Advance the clock
+     * @param deltaTime Time passed since last update in seconds
+     */
+    public static void advance(double deltaTime) {
+        time += deltaTime;
+    }
+
+    /**
+     * Reset the clock to zero, e.g. when a level starts
+     */
+    public static void reset() {
+        time = 0;
+    }
+
+    /**
+     * Get the elapsed animation time
+     * @return Time in seconds
+     */
+    public static double getTime() {
+        return time;
+    }
+
+    /**
+     * Get the frame of a looping animation at the current time
+     * @param frameCount Number of frames in the animation
+     * @param frameDuration Duration of each frame in seconds
+     * @return Frame index from 0 to frameCount - 1
+     */
+    public static int frame(int frameCount, double frameDuration) {
+        return (int) (time / frameDuration) % frameCount;
+    }
+}
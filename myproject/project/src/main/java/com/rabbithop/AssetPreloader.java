@@ -0,0 +1,125 @@
+package com.rabbithop;
+
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyDoubleProperty;
+import javafx.beans.property.ReadOnlyDoubleWrapper;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Loads images and sounds on background virtual threads.
+ * Each asset is one task; the screens that need an asset only have to
+ * wait for the tasks that are still running.
+ */
+public class AssetPreloader {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final List<Future<?>> tasks = new ArrayList<>();
+    private final AtomicInteger completed = new AtomicInteger();
+    private final ReadOnlyDoubleWrapper progress = new ReadOnlyDoubleWrapper(0);
+
+    /**
+     * Queue an image to be decoded into the ImageCache
+     * @param path Resource path of the image
+     * @return The queued task, to wait for it with await
+     */
+    public Future<?> addImage(String path) {
+        return addTask(path, () -> ImageCache.get(path));
+    }
+
+    /**
+     * Queue a loading task
+     * @param name Asset name (for error messages)
+     * @param task The work to run in the background
+     * @return The queued task, to wait for it with await
+     */
+    public synchronized Future<?> addTask(String name, Runnable task) {
+        Future<?> future = executor.submit(() -> {
+            try {
+                task.run();
+            } catch (Exception e) {
+                System.out.println("Could not preload " + name + ": " + e.getMessage());
+            } finally {
+                taskFinished();
+            }
+        });
+        tasks.add(future);
+        return future;
+    }
+
+    /**
+     * Update the progress after a task finished
+     */
+    private void taskFinished() {
+        completed.incrementAndGet();
+
+        // Progress is bound to UI controls, so only change it on the FX thread
+        Platform.runLater(this::updateProgress);
+    }
+
+    private synchronized void updateProgress() {
+        progress.set(tasks.isEmpty() ? 1.0 : (double) completed.get() / tasks.size());
+    }
+
+    /**
+     * Block until the given assets are loaded; the others keep
+     * loading in the background.
+     * Returns immediately if they are already done.
+     * @param pending Tasks returned by addTask or addImage
+     */
+    public void await(List<Future<?>> pending) {
+        long start = System.nanoTime();
+        boolean waited = false;
+        for (Future<?> task : pending) {
+            if (task.isDone()) {
+                continue;
+            }
+            waited = true;
+            try {
+                task.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                System.out.println("Asset loading failed: " + e.getMessage());
+            }
+        }
+
+        if (waited) {
+            System.out.println("Waited " + (System.nanoTime() - start) / 1_000_000 + " ms for assets");
+        }
+    }
+
+    /**
+     * Check if all queued assets are loaded
+     * @return true if nothing is left to load
+     */
+    public synchronized boolean isDone() {
+        for (Future<?> task : tasks) {
+            if (!task.isDone()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Loading progress from 0 to 1, updated on the FX thread
+     * @return Progress property
+     */
+    public ReadOnlyDoubleProperty progressProperty() {
+        return progress.getReadOnlyProperty();
+    }
+
+    /**
+     * Stop the loader threads
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
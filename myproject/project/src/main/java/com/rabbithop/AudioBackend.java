@@ -0,0 +1,77 @@
+package com.rabbithop;
+
+/**
+ * Plays sounds and music for the SoundManager.
+ * SoundManager decides what should be heard (queueing, coalescing, voice
+ * limits); the backend only turns it into audio. JavaFxAudioBackend is the
+ * real one, NullAudioBackend and RecordingAudioBackend let the game run
+ * without the media stack.
+ */
+public interface AudioBackend {
+
+    /**
+     * Register the resource of a sound or music track
+     * @param name Sound name
+     * @param resourcePath Classpath resource, e.g. "/sounds/jump.wav"
+     */
+    void registerSound(String name, String resourcePath);
+
+    /**
+     * Load a sound effect ahead of its first play.
+     * Can be called from a loader thread.
+     * @param name Sound name
+     */
+    void preloadEffect(String name);
+
+    /**
+     * Play a sound effect
+     * @param name Sound name
+     * @param stealOldest Restart the oldest voice if all voices of the sound are busy
+     * @return true if the sound was started
+     */
+    boolean playEffect(String name, boolean stealOldest);
+
+    /**
+     * Get the number of effect voices currently playing
+     * @return Active voice count over all sounds
+     */
+    int getActiveVoices();
+
+    /**
+     * Switch the background music
+     * @param track Track name, or null for no music
+     */
+    void playMusic(String track);
+
+    /**
+     * Mute or unmute the music
+     * @param muted Whether the music should be muted
+     */
+    void setMuted(boolean muted);
+
+    /**
+     * Get the number of players (or equivalent objects) alive
+     * @return Player count
+     */
+    int getLivePlayerCount();
+
+    /**
+     * Get a one-line summary of the backend statistics
+     * @return Summary text
+     */
+    String getStats();
+
+    /**
+     * Release all audio resources
+     */
+    void dispose();
+
+    /**
+     * Whether requests should be handed to the audio dispatch thread.
+     * Backends that do no real work return false and are called directly.
+     * @return true to use the dispatch thread
+     */
+    default boolean needsDispatchThread() {
+        return true;
+    }
+}
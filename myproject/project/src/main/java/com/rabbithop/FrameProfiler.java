@@ -0,0 +1,318 @@
+package com.rabbithop;
+
+import com.rabbithop.engine.TickTimer;
+import com.rabbithop.engine.TickTimer.Phase;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Frame-time profiler with an on-canvas overlay.
+ * The simulation times its phases with a TickTimer and the results are
+ * handed over inside the world snapshot; the render loop adds frame,
+ * render and HUD times and draws the overlay. While the profiler is
+ * disabled the timers only check a flag, so it can stay compiled in.
+ * Toggle with F3 or start enabled with -Drabbithop.profiler=true.
+ */
+public class FrameProfiler {
+
+    // Rolling history, one sample per rendered frame
+    private static final int HISTORY = 240;
+    // Recompute percentiles and GC figures every this many frames
+    private static final int REFRESH_FRAMES = 30;
+    private static final double GRAPH_MAX_MS = 33.3;
+    private static final double TARGET_FRAME_MS = 1000.0 / 60;
+    // Recompute the pacing figures at least this often, also while no frame is drawn
+    private static final long PACING_REFRESH_NANOS = 500_000_000;
+
+    private volatile boolean enabled = Boolean.getBoolean("rabbithop.profiler");
+
+    // Samples in milliseconds, written and read on the JavaFX thread only
+    private final double[] frameMs = new double[HISTORY];
+    private final double[] renderMs = new double[HISTORY];
+    private final double[] updateMs = new double[HISTORY];
+    private final double[] phaseMs = new double[Phase.values().length];
+    private int historyIndex = 0;
+    private int historySize = 0;
+    private int framesSinceRefresh = 0;
+    private TickTimer.Timings lastTimings;
+
+    // Figures shown in the overlay, refreshed every REFRESH_FRAMES frames
+    private double fps;
+    private double[] renderPercentiles = new double[3];
+    private double[] updatePercentiles = new double[3];
+    private int drawCalls;
+    private int sprites;
+    private String entityCounts = "";
+
+    // Garbage collection, summed over all collectors
+    private final List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+    private long lastGcCount = -1;
+    private long lastGcMillis;
+    private long gcCountDelta;
+    private long gcMillisDelta;
+    private long gcMillisTotal;
+
+    // Frame pacing: skipped frames, the render time they saved and the
+    // measured CPU use of the JavaFX thread
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private long lastCpuNanos = -1;
+    private long lastWallNanos;
+    private double fxCpuPercent;
+    private long skippedFrames;
+    private double savedMs;
+    private String pacingStats = "";
+
+    private final Font font = Font.font("Monospaced", 12);
+
+    /**
+     * Create a timer for the simulation that only runs while the profiler is on
+     * @return The timer
+     */
+    public TickTimer createTickTimer() {
+        return new TickTimer(this::isEnabled);
+    }
+
+    /**
+     * Whether the profiler collects and shows data
+     * @return true if enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Turn the profiler on or off. Can be called from any thread.
+     */
+    public void toggle() {
+        enabled = !enabled;
+    }
+
+    /**
+     * Set the entity counts shown in the overlay
+     * @param counts Short description, e.g. "31 platforms, 12 coins"
+     */
+    public void setEntityCounts(String counts) {
+        this.entityCounts = counts;
+    }
+
+    /**
+     * Set the frame pacing counters shown in the overlay
+     * @param skippedFrames Pulses not drawn so far
+     * @param pacingStats Breakdown of the skipped frames
+     */
+    public void setPacingStats(long skippedFrames, String pacingStats) {
+        this.skippedFrames = skippedFrames;
+        this.pacingStats = pacingStats;
+    }
+
+    /**
+     * Record a pulse the frame pacer skipped. Must be called on the JavaFX
+     * thread. Keeps the CPU and saved-time figures current while nothing is
+     * drawn (e.g. while the window is minimized), when recordFrame does not run.
+     * @param skippedFrames Pulses not drawn so far
+     * @param pacingStats Breakdown of the skipped frames
+     */
+    public void recordSkippedFrame(long skippedFrames, String pacingStats) {
+        setPacingStats(skippedFrames, pacingStats);
+        if (System.nanoTime() - lastWallNanos >= PACING_REFRESH_NANOS) {
+            refreshPacing();
+        }
+    }
+
+    /**
+     * Record a rendered frame. Must be called on the JavaFX thread.
+     * @param frameSeconds Time since the previous frame
+     * @param renderNanos Time spent drawing the world
+     * @param hudNanos Time spent updating the HUD
+     * @param drawCalls Draw calls issued for the frame
+     * @param sprites Sprites in the snapshot that was drawn
+     * @param timings Tick timings from the snapshot, or null
+     */
+    public void recordFrame(double frameSeconds, long renderNanos, long hudNanos,
+                            int drawCalls, int sprites, TickTimer.Timings timings) {
+        frameMs[historyIndex] = frameSeconds * 1000;
+        renderMs[historyIndex] = renderNanos / 1_000_000.0;
+        phaseMs[Phase.HUD.ordinal()] = hudNanos / 1_000_000.0;
+
+        // The same snapshot can be drawn more than once; count its ticks once
+        if (timings != null && timings != lastTimings && timings.ticks() > 0) {
+            lastTimings = timings;
+            updateMs[historyIndex] = timings.updateNanos() / 1_000_000.0 / timings.ticks();
+            for (Phase phase : Phase.values()) {
+                if (phase != Phase.HUD) {
+                    phaseMs[phase.ordinal()] = timings.phaseNanos()[phase.ordinal()] / 1_000_000.0 / timings.ticks();
+                }
+            }
+        } else {
+            updateMs[historyIndex] = 0;
+        }
+
+        this.drawCalls = drawCalls;
+        this.sprites = sprites;
+        historyIndex = (historyIndex + 1) % HISTORY;
+        historySize = Math.min(historySize + 1, HISTORY);
+
+        if (++framesSinceRefresh >= REFRESH_FRAMES) {
+            framesSinceRefresh = 0;
+            refresh();
+        }
+    }
+
+    /**
+     * Recompute the FPS, percentiles and GC figures
+     */
+    private void refresh() {
+        double totalMs = 0;
+        for (int i = 0; i < historySize; i++) {
+            totalMs += frameMs[i];
+        }
+        fps = totalMs > 0 ? historySize * 1000 / totalMs : 0;
+        renderPercentiles = percentiles(renderMs);
+        updatePercentiles = percentiles(updateMs);
+
+        long count = 0;
+        long millis = 0;
+        for (GarbageCollectorMXBean collector : collectors) {
+            count += Math.max(0, collector.getCollectionCount());
+            millis += Math.max(0, collector.getCollectionTime());
+        }
+        if (lastGcCount >= 0) {
+            gcCountDelta = count - lastGcCount;
+            gcMillisDelta = millis - lastGcMillis;
+        }
+        lastGcCount = count;
+        lastGcMillis = millis;
+        gcMillisTotal = millis;
+
+        refreshPacing();
+    }
+
+    /**
+     * Recompute the render time saved by pacing and the CPU use of the JavaFX thread
+     */
+    private void refreshPacing() {
+        // Skipped frames would have cost about as much as the drawn ones
+        double frameCostMs = phaseMs[Phase.HUD.ordinal()];
+        for (int i = 0; i < historySize; i++) {
+            frameCostMs += renderMs[i] / historySize;
+        }
+        savedMs = skippedFrames * frameCostMs;
+
+        // Called on the JavaFX thread, so this is the render thread's CPU time
+        if (threads.isCurrentThreadCpuTimeSupported()) {
+            long cpuNanos = threads.getCurrentThreadCpuTime();
+            long wallNanos = System.nanoTime();
+            if (lastCpuNanos >= 0 && wallNanos > lastWallNanos) {
+                fxCpuPercent = 100.0 * (cpuNanos - lastCpuNanos) / (wallNanos - lastWallNanos);
+            }
+            lastCpuNanos = cpuNanos;
+            lastWallNanos = wallNanos;
+        }
+    }
+
+    /**
+     * Get the 50th, 95th and 99th percentile of a sample history.
+     * Zero samples (frames without a new tick) are left out.
+     * @param samples Samples in milliseconds
+     * @return The three percentiles
+     */
+    private double[] percentiles(double[] samples) {
+        double[] sorted = new double[historySize];
+        int count = 0;
+        for (int i = 0; i < historySize; i++) {
+            if (samples[i] > 0) {
+                sorted[count++] = samples[i];
+            }
+        }
+        if (count == 0) {
+            return new double[3];
+        }
+        Arrays.sort(sorted, 0, count);
+        return new double[] {
+                sorted[(int) ((count - 1) * 0.50)],
+                sorted[(int) ((count - 1) * 0.95)],
+                sorted[(int) ((count - 1) * 0.99)]
+        };
+    }
+
+    /**
+     * Draw the overlay
+     * @param gc Graphics context to draw on (untransformed)
+     * @param x Left edge of the overlay
+     * @param y Top edge of the overlay
+     */
+    public void render(GraphicsContext gc, double x, double y) {
+        double width = HISTORY + 20;
+        double height = 260;
+
+        gc.setFill(Color.rgb(0, 0, 0, 0.7));
+        gc.fillRect(x, y, width, height);
+
+        gc.setFont(font);
+        gc.setFill(Color.WHITE);
+        double line = y + 16;
+        gc.fillText(String.format("FPS %.1f   draw calls %d   sprites %d", fps, drawCalls, sprites), x + 10, line);
+        line += 15;
+        gc.fillText(String.format("update p50/95/99 %.2f/%.2f/%.2f ms",
+                updatePercentiles[0], updatePercentiles[1], updatePercentiles[2]), x + 10, line);
+        line += 15;
+        gc.fillText(String.format("render p50/95/99 %.2f/%.2f/%.2f ms",
+                renderPercentiles[0], renderPercentiles[1], renderPercentiles[2]), x + 10, line);
+        line += 15;
+        gc.fillText(String.format("input %.3f  physics %.3f  coll %.3f",
+                phaseMs[Phase.INPUT.ordinal()], phaseMs[Phase.PHYSICS.ordinal()],
+                phaseMs[Phase.COLLISIONS.ordinal()]), x + 10, line);
+        line += 15;
+        gc.fillText(String.format("camera %.3f  HUD %.3f ms",
+                phaseMs[Phase.CAMERA.ordinal()], phaseMs[Phase.HUD.ordinal()]), x + 10, line);
+        line += 15;
+        gc.fillText(String.format("GC +%d (+%d ms), total %d ms", gcCountDelta, gcMillisDelta, gcMillisTotal),
+                x + 10, line);
+        line += 15;
+        gc.fillText(entityCounts, x + 10, line);
+        line += 15;
+        gc.fillText(String.format("FX thread CPU %.0f%%, ~%.0f ms saved by pacing", fxCpuPercent, savedMs),
+                x + 10, line);
+        line += 15;
+        gc.fillText(pacingStats, x + 10, line);
+
+        renderGraph(gc, x + 10, line + 10, HISTORY, height - (line + 10 - y) - 10);
+    }
+
+    /**
+     * Draw the frame time history, oldest sample on the left.
+     * Frame time in grey, render time in green, update time in orange.
+     */
+    private void renderGraph(GraphicsContext gc, double x, double y, double width, double height) {
+        double scale = height / GRAPH_MAX_MS;
+        for (int i = 0; i < historySize; i++) {
+            int index = (historyIndex - historySize + i + HISTORY) % HISTORY;
+            double barX = x + width - historySize + i;
+
+            double frame = Math.min(frameMs[index], GRAPH_MAX_MS) * scale;
+            gc.setFill(Color.GRAY);
+            gc.fillRect(barX, y + height - frame, 1, frame);
+
+            double render = Math.min(renderMs[index], GRAPH_MAX_MS) * scale;
+            gc.setFill(Color.LIMEGREEN);
+            gc.fillRect(barX, y + height - render, 1, render);
+
+            double update = Math.min(updateMs[index], GRAPH_MAX_MS) * scale;
+            gc.setFill(Color.ORANGE);
+            gc.fillRect(barX, y + height - render - update, 1, update);
+        }
+
+        // 60 FPS budget
+        double target = y + height - TARGET_FRAME_MS * scale;
+        gc.setStroke(Color.RED);
+        gc.strokeLine(x, target, x + width, target);
+    }
+}
@@ -5,6 +5,9 @@ import javafx.scene.Scene;
 import javafx.stage.Stage;
 import com.rabbithop.GameSaveData;
 import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
 
 /**
  * Manages the game state and screen transitions
@@ -39,25 +42,96 @@ public class GameManager {
     private int currentScreenId;
     
     private Stage primaryStage; // Add this as a class field
+    
+    // Background asset loading; the other screens wait only for the screen assets
+    private AssetPreloader assetPreloader;
+    private final List<Future<?>> screenAssets = new ArrayList<>();
+    
+    // Notified when the level, coins or health change
+    private final List<Runnable> stateListeners = new ArrayList<>();
 
     public GameManager(Stage primaryStage) {
         this.primaryStage = primaryStage;
-        this.soundManager = new SoundManager(); 
+        this.soundManager = createSoundManager();
+        startPreloading();
         initializeScreens();
+        
+        // Pre-rendered images follow the window to a monitor with another scale
+        primaryStage.outputScaleXProperty().addListener((observable, oldScale, newScale) -> {
+            if (gameScreen != null) {
+                gameScreen.updatePixelScale();
+            }
+        });
+        soundManager.playMusic(getMusicTrack(MENU_SCREEN));
     }
     
     private void initializeScreens() {
+        // Only the menu is needed to show the window; the other screens
+        // are created once the preloaded assets are needed (see ensureScreens)
         menuScreen = new MenuScreen(this);
-        gameScreen = new GameScreen(this);
-        storeScreen = new StoreScreen(this);
-        levelCompleteScreen = new LevelCompleteScreen(this);
-        gameOverScreen = new GameOverScreen(this);
         
         // Set the menu screen as default
         currentScene = menuScreen.getScene();
         currentScreenId = MENU_SCREEN;
     }
     
+    /**
+     * Create the sound manager on the backend chosen with -Drabbithop.audio
+     * ("none" for silent runs, "recording" to log played sounds)
+     * @return The sound manager
+     */
+    private SoundManager createSoundManager() {
+        String audio = System.getProperty("rabbithop.audio", "javafx");
+        switch (audio) {
+            case "none":
+                return new SoundManager(new NullAudioBackend());
+            case "recording":
+                return new SoundManager(new RecordingAudioBackend());
+            default:
+                return new SoundManager();
+        }
+    }
+    
+    /**
+     * Queue the sprites and sounds for loading while the menu is visible.
+     * Sounds can still be loading when the game starts: a sound that is
+     * played first is loaded by the audio thread.
+     */
+    private void startPreloading() {
+        assetPreloader = new AssetPreloader();
+        screenAssets.add(assetPreloader.addTask("sprite atlas", SpriteAtlas::preload));
+        
+        // Images used by the other screens
+        screenAssets.add(assetPreloader.addImage("/images/trophy.png"));
+        screenAssets.add(assetPreloader.addImage("/images/sad_rabbit.png"));
+        screenAssets.add(assetPreloader.addImage("/images/health_potion.png"));
+        screenAssets.add(assetPreloader.addImage("/images/speed_potion.png"));
+        screenAssets.add(assetPreloader.addImage("/images/jump_potion.png"));
+        screenAssets.add(assetPreloader.addImage("/images/key.png"));
+        
+        for (String sound : soundManager.getEffectNames()) {
+            assetPreloader.addTask("sound " + sound, () -> soundManager.preloadSound(sound));
+        }
+    }
+    
+    /**
+     * Create the screens other than the menu, waiting only for the sprite
+     * atlas and screen images that have not finished loading yet.
+     * Sounds are not waited for, they finish loading in the background.
+     */
+    private void ensureScreens() {
+        if (gameScreen != null) {
+            return;
+        }
+        
+        assetPreloader.await(screenAssets);
+        
+        gameScreen = new GameScreen(this);
+        storeScreen = new StoreScreen(this);
+        levelCompleteScreen = new LevelCompleteScreen(this);
+        gameOverScreen = new GameOverScreen(this);
+    }
+    
     /**
      * Change to a different screen
      * @param screenId The screen ID to switch to
@@ -65,6 +139,15 @@ public class GameManager {
     public void changeScreen(int screenId) {
         Scene newScene = null;
         
+        if (screenId != MENU_SCREEN) {
+            ensureScreens();
+        }
+        
+        // The game only runs while its screen is shown
+        if (screenId != GAME_SCREEN && gameScreen != null) {
+            gameScreen.stopGameLoop();
+        }
+        
         switch(screenId) {
             case MENU_SCREEN:
                 newScene = menuScreen.getScene();
@@ -101,9 +184,32 @@ public class GameManager {
             
             // Get the current stage and set the new scene
             primaryStage.setScene(currentScene);
+            
+            // Crossfade to the music of the new screen
+            soundManager.playMusic(getMusicTrack(screenId));
             }
         }
     
+    /**
+     * Get the music track for a screen
+     * @param screenId The screen ID
+     * @return Track name, or null for no music
+     */
+    private String getMusicTrack(int screenId) {
+        switch (screenId) {
+            case GAME_SCREEN:
+            case STORE_SCREEN:
+                // Use a level-specific track if one is registered
+                String levelTrack = "bgm_level" + currentLevel;
+                return soundManager.hasSound(levelTrack) ? levelTrack : "bgm";
+            case MENU_SCREEN:
+                return "bgm";
+            default:
+                // Level complete and game over have their own sound
+                return null;
+        }
+    }
+    
     
     /**
      * Return to the previous screen before the store
@@ -124,6 +230,7 @@ public class GameManager {
         this.hasKey = false;
         this.rabbitSpeed = 50.0;
         this.jumpHeight = 90.0;
+        fireStateChanged();
         
         changeScreen(GAME_SCREEN);
     }
@@ -144,6 +251,7 @@ public class GameManager {
         if (currentLevel < maxLevel && hasKey) {
             currentLevel++;
             hasKey = false; // Reset key for the next level
+            fireStateChanged();
             changeScreen(GAME_SCREEN);
         }
     }
@@ -163,6 +271,7 @@ public class GameManager {
      */
     public void addCoins(int amount) {
         this.coins += amount;
+        fireStateChanged();
     }
     
     /**
@@ -170,6 +279,7 @@ public class GameManager {
      */
     public void hitToxicBerries() {
         health -= 2;
+        fireStateChanged();
         if (health <= 3) {
             gameOver();
         }
@@ -183,6 +293,7 @@ public class GameManager {
         if (coins >= 2) {
             coins -= 2;
             health = (health + 5 ); 
+            fireStateChanged();
             return true;
         }
         return false;
@@ -196,6 +307,7 @@ public class GameManager {
         if (coins >= 1) {
             coins -= 1;
             rabbitSpeed += 10;
+            fireStateChanged();
             return true;
         }
         return false;
@@ -209,6 +321,7 @@ public class GameManager {
         if (coins >= 1) {
             coins -= 1;
             jumpHeight += 25;
+            fireStateChanged();
             return true;
         }
         return false;
@@ -222,11 +335,27 @@ public class GameManager {
         if (coins >= 10) {
             coins -= 10;
             hasKey = true;
+            fireStateChanged();
             return true;
         }
         return false;
     }
     
+    /**
+     * Register a listener for changes of the level, coins or health.
+     * Listeners run on the JavaFX thread, right after the change.
+     * @param listener The listener
+     */
+    public void addStateListener(Runnable listener) {
+        stateListeners.add(listener);
+    }
+    
+    private void fireStateChanged() {
+        for (Runnable listener : stateListeners) {
+            listener.run();
+        }
+    }
+    
     /**
      * Clean up resources
      */
@@ -235,6 +364,10 @@ public class GameManager {
         if (gameScreen != null) {
             gameScreen.stopGameLoop();
         }
+        assetPreloader.shutdown();
+        
+        System.out.println(soundManager.getStats());
+        soundManager.dispose();
     }
     
     // Getters for the scenes
@@ -243,9 +376,14 @@ public class GameManager {
     }
     
     public Scene getGameScene() {
+        ensureScreens();
         return gameScreen.getScene();
     }
     
+    public AssetPreloader getAssetPreloader() {
+        return assetPreloader;
+    }
+    
     // Getters and setters for game state
     public int getCurrentLevel() {
         return currentLevel;
@@ -274,6 +412,18 @@ public class GameManager {
     public int getMaxLevel() {
         return maxLevel;
     }
+    
+    /**
+     * Get the output scale of the window (of the primary screen until it is shown),
+     * so pre-rendered images can match the device pixels
+     * @return Device pixels per layout pixel
+     */
+    public double getOutputScale() {
+        if (primaryStage.isShowing()) {
+            return primaryStage.getOutputScaleX();
+        }
+        return javafx.stage.Screen.getPrimary().getOutputScaleX();
+    }
 
     private SoundManager soundManager;
     // Add this method to your GameManager class
@@ -317,6 +467,7 @@ public boolean loadGame() {
         this.hasKey = saveData.hasKey();
         this.rabbitSpeed = saveData.getRabbitSpeed();
         this.jumpHeight = saveData.getJumpHeight();
+        fireStateChanged();
         
         System.out.println("Load successful: Level " + currentLevel);
         return true;
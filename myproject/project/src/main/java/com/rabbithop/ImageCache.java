@@ -0,0 +1,118 @@
+package com.rabbithop;
+
+import javafx.scene.image.Image;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shared registry of decoded images.
+ * Each resource is decoded once and the same Image instance is handed out
+ * to every entity that asks for it.
+ */
+public final class ImageCache {
+
+    private static final Map<String, Image> images = new ConcurrentHashMap<>();
+
+    // Statistics
+    private static final AtomicInteger hits = new AtomicInteger();
+    private static final AtomicInteger misses = new AtomicInteger();
+    private static final AtomicLong decodedBytes = new AtomicLong();
+
+    private ImageCache() {
+    }
+
+    /**
+     * Get the image for a classpath resource, decoding it on first use
+     * @param path Resource path, e.g. "/images/coin_0.png"
+     * @return The shared image, or null if it could not be loaded
+     */
+    public static Image get(String path) {
+        Image image = images.get(path);
+        if (image != null) {
+            hits.incrementAndGet();
+            return image;
+        }
+
+        image = images.computeIfAbsent(path, ImageCache::decode);
+        return image;
+    }
+
+    /**
+     * Check if an image has already been decoded
+     * @param path Resource path
+     * @return true if the image is in the cache
+     */
+    public static boolean contains(String path) {
+        return images.containsKey(path);
+    }
+
+    /**
+     * Decode a resource (only called on a cache miss)
+     * @param path Resource path
+     * @return The decoded image, or null if it could not be loaded
+     */
+    private static Image decode(String path) {
+        misses.incrementAndGet();
+
+        try (InputStream in = ImageCache.class.getResourceAsStream(path)) {
+            if (in == null) {
+                System.out.println("Image resource not found: " + path);
+                return null;
+            }
+
+            Image image = new Image(in);
+            if (image.isError()) {
+                System.out.println("Could not decode image: " + path);
+                return null;
+            }
+
+            // Decoded images are stored as 32-bit ARGB
+            decodedBytes.addAndGet((long) image.getWidth() * (long) image.getHeight() * 4);
+            return image;
+        } catch (Exception e) {
+            System.out.println("Could not load image: " + path + " - " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Drop all cached images and reset the statistics
+     */
+    public static void clear() {
+        images.clear();
+        hits.set(0);
+        misses.set(0);
+        decodedBytes.set(0);
+    }
+
+    // Statistics getters
+    public static int getHitCount() {
+        return hits.get();
+    }
+
+    public static int getMissCount() {
+        return misses.get();
+    }
+
+    public static long getDecodedBytes() {
+        return decodedBytes.get();
+    }
+
+    public static int size() {
+        return images.size();
+    }
+
+    /**
+     * Get a one-line summary of the cache statistics
+     * @return Summary text
+     */
+    public static String getStats() {
+        return "ImageCache: " + size() + " images, "
+                + getHitCount() + " hits, "
+                + getMissCount() + " misses, "
+                + (getDecodedBytes() / 1024) + " KB decoded";
+    }
+}
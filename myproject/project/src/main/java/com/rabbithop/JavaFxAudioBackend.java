@@ -0,0 +1,162 @@
+package com.rabbithop;
+
+import javafx.scene.media.Media;
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Audio backend on javafx.scene.media.
+ * Effects play from pools of reusable players, music from one long-lived
+ * player per track.
+ */
+public class JavaFxAudioBackend implements AudioBackend {
+
+    // Players per sound effect, i.e. how many copies can overlap
+    private static final int VOICES_PER_EFFECT = 3;
+
+    private final Map<String, String> soundPaths = new ConcurrentHashMap<>();
+    private final Map<String, Media> mediaCache = new ConcurrentHashMap<>();
+    private final Map<String, SoundEffectPool> effectPools = new ConcurrentHashMap<>();
+
+    // Background music, one long-lived player per track
+    private final MusicPlayer music = new MusicPlayer(this::getMedia);
+
+    @Override
+    public void registerSound(String name, String resourcePath) {
+        soundPaths.put(name, resourcePath);
+    }
+
+    @Override
+    public void preloadEffect(String name) {
+        getEffectPool(name);
+    }
+
+    @Override
+    public boolean playEffect(String name, boolean stealOldest) {
+        SoundEffectPool pool = getEffectPool(name);
+        if (pool == null) {
+            return false;
+        }
+
+        if (stealOldest) {
+            pool.play();
+            return true;
+        }
+        return pool.tryPlay();
+    }
+
+    @Override
+    public int getActiveVoices() {
+        int count = 0;
+        for (SoundEffectPool pool : effectPools.values()) {
+            count += pool.getActiveVoices();
+        }
+        return count;
+    }
+
+    /**
+     * Must be called on the JavaFX thread
+     */
+    @Override
+    public void playMusic(String track) {
+        music.play(track);
+    }
+
+    @Override
+    public void setMuted(boolean muted) {
+        music.setMuted(muted);
+    }
+
+    @Override
+    public int getLivePlayerCount() {
+        int count = music.getPlayerCount();
+        for (SoundEffectPool pool : effectPools.values()) {
+            count += pool.getPlayerCount();
+        }
+        return count;
+    }
+
+    /**
+     * Live players and trigger-to-play latency
+     */
+    @Override
+    public String getStats() {
+        long samples = 0;
+        long totalNanos = 0;
+        long maxNanos = 0;
+        long unmeasured = 0;
+        long replaced = 0;
+        for (SoundEffectPool pool : effectPools.values()) {
+            samples += pool.getLatencySamples();
+            totalNanos += pool.getLatencyTotalNanos();
+            maxNanos = Math.max(maxNanos, pool.getLatencyMaxNanos());
+            unmeasured += pool.getUnmeasuredPlays();
+            replaced += pool.getReplacedPlayers();
+        }
+
+        double avgMs = samples == 0 ? 0 : totalNanos / 1_000_000.0 / samples;
+        return String.format("%d live players (%d replaced after errors), "
+                        + "latency avg %.2f ms / max %.2f ms over %d plays (%d restarted voices unmeasured)",
+                getLivePlayerCount(), replaced, avgMs, maxNanos / 1_000_000.0, samples, unmeasured);
+    }
+
+    @Override
+    public void dispose() {
+        for (SoundEffectPool pool : effectPools.values()) {
+            pool.dispose();
+        }
+        effectPools.clear();
+
+        music.dispose();
+    }
+
+    /**
+     * Get the player pool for a sound effect, creating it on first use
+     * @param name Sound name
+     * @return The pool, or null if the sound could not be loaded
+     */
+    private SoundEffectPool getEffectPool(String name) {
+        SoundEffectPool pool = effectPools.get(name);
+        if (pool != null) {
+            return pool;
+        }
+
+        Media media = getMedia(name);
+        if (media == null) {
+            return null;
+        }
+        return effectPools.computeIfAbsent(name, n -> new SoundEffectPool(n, media, VOICES_PER_EFFECT));
+    }
+
+    /**
+     * Get the Media for a sound, creating it on first use
+     * @param name Sound name
+     * @return The media, or null if the sound could not be found
+     */
+    private Media getMedia(String name) {
+        Media media = mediaCache.get(name);
+        if (media != null) {
+            return media;
+        }
+
+        String path = soundPaths.get(name);
+        if (path == null) {
+            System.out.println("Sound not found: " + name);
+            return null;
+        }
+
+        URL resource = getClass().getResource(path);
+        if (resource == null) {
+            System.out.println("Sound resource not found: " + path);
+            return null;
+        }
+
+        try {
+            return mediaCache.computeIfAbsent(name, n -> new Media(resource.toExternalForm()));
+        } catch (Exception e) {
+            System.out.println("Could not load sound '" + name + "': " + e.getMessage());
+            return null;
+        }
+    }
+}
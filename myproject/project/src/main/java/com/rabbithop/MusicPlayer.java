@@ -0,0 +1,156 @@
+package com.rabbithop;
+
+import javafx.animation.KeyFrame;
+import javafx.animation.KeyValue;
+import javafx.animation.Timeline;
+import javafx.scene.media.Media;
+import javafx.scene.media.MediaPlayer;
+import javafx.util.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Background music with crossfading between tracks.
+ * Every track keeps a single MediaPlayer for the whole session; switching
+ * tracks fades the old one out and pauses it, so returning to a track
+ * resumes it without opening the stream again.
+ * Must be used on the JavaFX thread.
+ */
+public class MusicPlayer {
+
+    private static final Duration CROSSFADE_DURATION = Duration.seconds(1);
+    private static final double MUSIC_VOLUME = 0.6;
+
+    private final Function<String, Media> mediaLoader;
+    private final Map<String, MediaPlayer> players = new HashMap<>();
+    private final Set<String> missingTracks = new HashSet<>();
+
+    private String currentTrack;
+    private Timeline crossfade;
+    private boolean muted = false;
+
+    /**
+     * @param mediaLoader Returns the decoded Media for a track name, or null
+     */
+    public MusicPlayer(Function<String, Media> mediaLoader) {
+        this.mediaLoader = mediaLoader;
+    }
+
+    /**
+     * Crossfade to a track. Does nothing if the track is already playing.
+     * @param track Track name, or null to fade out the music
+     */
+    public void play(String track) {
+        if (track != null && track.equals(currentTrack)) {
+            return;
+        }
+
+        MediaPlayer incoming = track != null ? getPlayer(track) : null;
+        currentTrack = incoming != null ? track : null;
+
+        // Stopping a fade also drops its onFinished, so a track still fading
+        // out from an earlier switch would never be paused: fade out every
+        // player that has not been paused yet, not only the current one
+        if (crossfade != null) {
+            crossfade.stop();
+        }
+        List<MediaPlayer> outgoing = new ArrayList<>();
+        for (MediaPlayer player : players.values()) {
+            if (player != incoming && player.getStatus() != MediaPlayer.Status.PAUSED) {
+                outgoing.add(player);
+            }
+        }
+
+        // Fade between the players, then pause the old ones
+        crossfade = new Timeline();
+        for (MediaPlayer player : outgoing) {
+            crossfade.getKeyFrames().add(new KeyFrame(CROSSFADE_DURATION,
+                    new KeyValue(player.volumeProperty(), 0)));
+        }
+        if (incoming != null) {
+            if (incoming.getStatus() != MediaPlayer.Status.PLAYING) {
+                incoming.setVolume(0);
+            }
+            incoming.setMute(muted);
+            incoming.play();
+            crossfade.getKeyFrames().add(new KeyFrame(CROSSFADE_DURATION,
+                    new KeyValue(incoming.volumeProperty(), MUSIC_VOLUME)));
+        }
+        crossfade.setOnFinished(e -> {
+            for (MediaPlayer player : outgoing) {
+                player.pause();
+            }
+        });
+        crossfade.play();
+    }
+
+    /**
+     * Fade out the current track
+     */
+    public void stop() {
+        play(null);
+    }
+
+    /**
+     * Mute or unmute the music without losing the playback position
+     * @param muted Whether the music should be muted
+     */
+    public void setMuted(boolean muted) {
+        this.muted = muted;
+        for (MediaPlayer player : players.values()) {
+            player.setMute(muted);
+        }
+    }
+
+    /**
+     * Get the long-lived player of a track, creating it on first use
+     * @param track Track name
+     * @return The player, or null if the track could not be loaded
+     */
+    private MediaPlayer getPlayer(String track) {
+        MediaPlayer player = players.get(track);
+        if (player != null || missingTracks.contains(track)) {
+            return player;
+        }
+
+        Media media = mediaLoader.apply(track);
+        if (media == null) {
+            // Remember so we do not look it up again on every screen change
+            missingTracks.add(track);
+            return null;
+        }
+
+        player = new MediaPlayer(media);
+        player.setCycleCount(MediaPlayer.INDEFINITE);
+        player.setOnError(() -> System.out.println("Music error (" + track + ")"));
+        players.put(track, player);
+        return player;
+    }
+
+    /**
+     * Get the number of music players alive
+     * @return Player count
+     */
+    public int getPlayerCount() {
+        return players.size();
+    }
+
+    /**
+     * Release all music players
+     */
+    public void dispose() {
+        if (crossfade != null) {
+            crossfade.stop();
+        }
+        for (MediaPlayer player : players.values()) {
+            player.dispose();
+        }
+        players.clear();
+        currentTrack = null;
+    }
+}
@@ -0,0 +1,58 @@
+package com.rabbithop;
+
+/**
+ * Audio backend that plays nothing.
+ * Used for headless runs (benchmarks, soak tests, bots) so the game loop
+ * needs neither the media stack nor a display, and pays nothing for audio.
+ */
+public class NullAudioBackend implements AudioBackend {
+
+    @Override
+    public void registerSound(String name, String resourcePath) {
+    }
+
+    @Override
+    public void preloadEffect(String name) {
+    }
+
+    @Override
+    public boolean playEffect(String name, boolean stealOldest) {
+        return true;
+    }
+
+    @Override
+    public int getActiveVoices() {
+        // Sounds "finish" instantly, so voice limits never kick in
+        return 0;
+    }
+
+    @Override
+    public void playMusic(String track) {
+    }
+
+    @Override
+    public void setMuted(boolean muted) {
+    }
+
+    @Override
+    public int getLivePlayerCount() {
+        return 0;
+    }
+
+    @Override
+    public String getStats() {
+        return "no audio";
+    }
+
+    @Override
+    public void dispose() {
+    }
+
+    /**
+     * Nothing to offload, so requests are handled on the caller's thread
+     */
+    @Override
+    public boolean needsDispatchThread() {
+        return false;
+    }
+}
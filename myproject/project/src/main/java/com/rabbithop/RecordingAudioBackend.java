@@ -0,0 +1,68 @@
+package com.rabbithop;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Silent audio backend that remembers what would have been played,
+ * so headless runs can check which sounds the gameplay triggered.
+ */
+public class RecordingAudioBackend extends NullAudioBackend {
+
+    private final List<String> playedEffects = new ArrayList<>();
+    private final Map<String, Integer> playCounts = new HashMap<>();
+    private final List<String> musicTracks = new ArrayList<>();
+
+    @Override
+    public synchronized boolean playEffect(String name, boolean stealOldest) {
+        playedEffects.add(name);
+        playCounts.merge(name, 1, Integer::sum);
+        return true;
+    }
+
+    @Override
+    public synchronized void playMusic(String track) {
+        musicTracks.add(track);
+    }
+
+    /**
+     * Get the effects played so far, in order
+     * @return Copy of the played effect names
+     */
+    public synchronized List<String> getPlayedEffects() {
+        return new ArrayList<>(playedEffects);
+    }
+
+    /**
+     * Get how often an effect was played
+     * @param name Sound name
+     * @return Play count
+     */
+    public synchronized int getPlayCount(String name) {
+        return playCounts.getOrDefault(name, 0);
+    }
+
+    /**
+     * Get the music tracks requested so far, in order (null = music off)
+     * @return Copy of the track names
+     */
+    public synchronized List<String> getMusicTracks() {
+        return new ArrayList<>(musicTracks);
+    }
+
+    /**
+     * Forget everything recorded so far
+     */
+    public synchronized void clear() {
+        playedEffects.clear();
+        playCounts.clear();
+        musicTracks.clear();
+    }
+
+    @Override
+    public synchronized String getStats() {
+        return "recorded " + playedEffects.size() + " effects " + playCounts;
+    }
+}
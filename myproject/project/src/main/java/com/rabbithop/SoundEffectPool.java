@@ -0,0 +1,206 @@
+package com.rabbithop;
+
+import javafx.scene.media.Media;
+import javafx.scene.media.MediaPlayer;
+import javafx.util.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A fixed set of reusable players ("voices") for one sound effect.
+ * Players are created once and rewound instead of being rebuilt for every
+ * play, so the number of live players stays constant.
+ */
+public class SoundEffectPool {
+
+    private final String name;
+    private final Media media;
+    private final MediaPlayer[] players;
+    private final boolean[] busy;
+    private final long[] triggerTimes;
+
+    // Trigger-to-play latency, measured when a voice reports PLAYING
+    private final AtomicLong latencyTotalNanos = new AtomicLong();
+    private final AtomicLong latencyMaxNanos = new AtomicLong();
+    private final AtomicLong latencySamples = new AtomicLong();
+
+    // Restarts of a voice that was still playing; the player stays PLAYING,
+    // so onPlaying does not fire and their latency cannot be measured
+    private final AtomicLong unmeasuredPlays = new AtomicLong();
+    private final AtomicLong replacedPlayers = new AtomicLong();
+
+    /**
+     * Create the pool and its players
+     * @param name Sound name (for error messages)
+     * @param media The decoded sound
+     * @param voices Maximum number of overlapping plays
+     */
+    public SoundEffectPool(String name, Media media, int voices) {
+        this.name = name;
+        this.media = media;
+        this.players = new MediaPlayer[voices];
+        this.busy = new boolean[voices];
+        this.triggerTimes = new long[voices];
+
+        for (int i = 0; i < voices; i++) {
+            players[i] = createPlayer(i);
+        }
+    }
+
+    /**
+     * Create the player of a voice
+     * @param voice Voice index
+     * @return The player
+     */
+    private MediaPlayer createPlayer(int voice) {
+        MediaPlayer player = new MediaPlayer(media);
+
+        player.setOnPlaying(() -> recordLatency(voice));
+        player.setOnEndOfMedia(() -> {
+            // Rewind and give the voice back to the pool
+            player.stop();
+            release(voice);
+        });
+        player.setOnError(() -> {
+            System.out.println("Media error (" + name + "): " + player.getError().getMessage());
+            replacePlayer(voice, player);
+        });
+        return player;
+    }
+
+    /**
+     * Swap a player that errored out for a new one. A failed player is
+     * halted for good, and being the first free voice it would otherwise
+     * be picked for every later play.
+     * @param voice Voice index
+     * @param failed The player that reported the error
+     */
+    private void replacePlayer(int voice, MediaPlayer failed) {
+        MediaPlayer replacement = createPlayer(voice);
+        synchronized (this) {
+            players[voice] = replacement;
+            busy[voice] = false;
+        }
+        failed.dispose();
+        replacedPlayers.incrementAndGet();
+    }
+
+    /**
+     * Play the sound on a free voice, or restart the oldest one if all
+     * voices are busy
+     */
+    public void play() {
+        play(true);
+    }
+
+    /**
+     * Play the sound only if a voice is free
+     * @return true if the sound was started, false if all voices are busy
+     */
+    public boolean tryPlay() {
+        return play(false);
+    }
+
+    private boolean play(boolean stealOldest) {
+        long now = System.nanoTime();
+        int voice;
+        MediaPlayer player;
+
+        synchronized (this) {
+            voice = -1;
+            for (int i = 0; i < players.length; i++) {
+                if (!busy[i]) {
+                    voice = i;
+                    break;
+                }
+            }
+            if (voice < 0) {
+                if (!stealOldest) {
+                    return false;
+                }
+                voice = 0;
+                for (int i = 1; i < players.length; i++) {
+                    if (triggerTimes[i] < triggerTimes[voice]) {
+                        voice = i;
+                    }
+                }
+                unmeasuredPlays.incrementAndGet();
+            }
+            busy[voice] = true;
+            triggerTimes[voice] = now;
+            player = players[voice];
+        }
+
+        player.seek(Duration.ZERO);
+        player.play();
+        return true;
+    }
+
+    private synchronized void release(int voice) {
+        busy[voice] = false;
+    }
+
+    private void recordLatency(int voice) {
+        long latency;
+        synchronized (this) {
+            latency = System.nanoTime() - triggerTimes[voice];
+        }
+        latencyTotalNanos.addAndGet(latency);
+        latencySamples.incrementAndGet();
+        latencyMaxNanos.accumulateAndGet(latency, Math::max);
+    }
+
+    /**
+     * Get the number of voices currently playing
+     * @return Active voice count
+     */
+    public synchronized int getActiveVoices() {
+        int count = 0;
+        for (boolean b : busy) {
+            if (b) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Get the number of players owned by this pool
+     * @return Player count
+     */
+    public int getPlayerCount() {
+        return players.length;
+    }
+
+    public long getLatencySamples() {
+        return latencySamples.get();
+    }
+
+    public long getLatencyTotalNanos() {
+        return latencyTotalNanos.get();
+    }
+
+    public long getLatencyMaxNanos() {
+        return latencyMaxNanos.get();
+    }
+
+    public long getUnmeasuredPlays() {
+        return unmeasuredPlays.get();
+    }
+
+    public long getReplacedPlayers() {
+        return replacedPlayers.get();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Stop and release all players
+     */
+    public synchronized void dispose() {
+        for (MediaPlayer player : players) {
+            player.dispose();
+        }
+    }
+}
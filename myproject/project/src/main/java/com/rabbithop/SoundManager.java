@@ -1,10 +1,17 @@
 package com.rabbithop;
 
-import javafx.scene.media.Media;
-import javafx.scene.media.MediaPlayer;
-import java.net.URL;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
 
 /**
  * Manages game sound effects and music
@@ -12,11 +19,77 @@ import java.util.Map;
 public class SoundManager {
     
     private Map<String, String> soundPaths;
-    private boolean soundEnabled = true;
+    private final AudioBackend backend;
+    private volatile boolean soundEnabled = true;
+    
+    // Limits for sounds requested by the game world (see requestSound)
+    private static final int MAX_TOTAL_VOICES = 6;
+    private static final long COALESCE_WINDOW_NANOS = 60_000_000; // 60 ms
+    private static final double OFF_CAMERA_MARGIN = 100;
+    
+    // Sound requests waiting for the audio thread; beyond this depth they are dropped
+    // (end-of-frame markers are not counted and always queued)
+    private static final int MAX_QUEUE_DEPTH = 64;
+    
+    /**
+     * A queued sound request. A null name marks the end of a frame.
+     */
+    private record SoundRequest(String name, double sourceX, boolean positional) {
+    }
+    
+    private static final SoundRequest END_OF_FRAME = new SoundRequest(null, 0, false);
+    
+    // Audio dispatch thread and its lock-free queue
+    private final Queue<SoundRequest> requestQueue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final Thread audioThread; // null when the backend is called directly
+    private volatile boolean running = true;
+    
+    // Visible part of the world, written by the game loop
+    private volatile double listenerLeft = Double.NEGATIVE_INFINITY;
+    private volatile double listenerRight = Double.POSITIVE_INFINITY;
+    
+    // Frame state, guarded by frameLock: the audio thread is not the only
+    // user, because without it requests are handled on the calling thread
+    // (the simulation thread and the JavaFX thread)
+    private final Object frameLock = new Object();
+    private final List<String> pendingSounds = new ArrayList<>();
+    private final Map<String, Long> lastPlayTimes = new HashMap<>();
+    
+    // Time for the coalescing window; headless runs use simulated time
+    private volatile LongSupplier clock = System::nanoTime;
+    
+    // Request statistics
+    private final AtomicLong requestedCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong coalescedCount = new AtomicLong();
+    private final AtomicLong offCameraCount = new AtomicLong();
+    private final AtomicLong voiceLimitedCount = new AtomicLong();
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
     
     public SoundManager() {
+        this(new JavaFxAudioBackend());
+    }
+    
+    /**
+     * Create a sound manager on a specific backend
+     * @param backend Audio backend, e.g. NullAudioBackend for headless runs
+     */
+    public SoundManager(AudioBackend backend) {
+        this.backend = backend;
         soundPaths = new HashMap<>();
         initializeSoundPaths();
+        for (Map.Entry<String, String> entry : soundPaths.entrySet()) {
+            backend.registerSound(entry.getKey(), entry.getValue());
+        }
+        
+        if (backend.needsDispatchThread()) {
+            audioThread = new Thread(this::runAudioThread, "audio-dispatch");
+            audioThread.setDaemon(true);
+            audioThread.start();
+        } else {
+            audioThread = null;
+        }
     }
     
     /**
@@ -38,37 +111,258 @@ public class SoundManager {
     public void playSound(String name) {
         if (!soundEnabled) return;
         
-        try {
-            String path = soundPaths.get(name);
-            if (path == null) {
-                System.out.println("Sound not found: " + name);
+        enqueue(new SoundRequest(name, 0, false));
+    }
+    
+    /**
+     * Queue a sound caused by something in the game world.
+     * Requests are played by the audio thread once flushSounds marks the
+     * end of the frame; the same sound requested several times is played
+     * once, and sounds from sources outside the visible area are skipped.
+     * @param name Sound name
+     * @param sourceX World X position of the source
+     */
+    public void requestSound(String name, double sourceX) {
+        if (!soundEnabled) return;
+        
+        enqueue(new SoundRequest(name, sourceX, true));
+    }
+    
+    /**
+     * Set the visible part of the world, used to skip off-camera sounds
+     * @param left World X of the left edge of the view
+     * @param right World X of the right edge of the view
+     */
+    public void setListenerRange(double left, double right) {
+        this.listenerLeft = left;
+        this.listenerRight = right;
+    }
+    
+    /**
+     * Set the clock the coalescing window is measured with. Headless runs
+     * step the game much faster than real time and pass the simulated
+     * time, so the same run always plays the same sounds.
+     * @param clock Time in nanoseconds
+     */
+    public void setClock(LongSupplier clock) {
+        this.clock = clock;
+    }
+    
+    /**
+     * Mark the end of the frame so the audio thread plays the sounds
+     * requested during it
+     */
+    public void flushSounds() {
+        enqueue(END_OF_FRAME);
+    }
+    
+    /**
+     * Hand a request to the audio thread. This is all the game loop pays for.
+     * @param request The request
+     */
+    private void enqueue(SoundRequest request) {
+        if (request != END_OF_FRAME) {
+            requestedCount.incrementAndGet();
+        }
+        
+        if (audioThread == null) {
+            // Backend does no real work, handle it right here (under frameLock)
+            handleRequest(request);
+            return;
+        }
+        
+        // Frame markers are never dropped and do not count toward the depth:
+        // losing one would push the frame's sounds into the next frame
+        if (request != END_OF_FRAME) {
+            int depth = queueDepth.incrementAndGet();
+            if (depth > MAX_QUEUE_DEPTH) {
+                queueDepth.decrementAndGet();
+                droppedCount.incrementAndGet();
                 return;
             }
-            
-            URL resource = getClass().getResource(path);
-            if (resource == null) {
-                System.out.println("Sound resource not found: " + path);
-                return;
+            maxQueueDepth.accumulateAndGet(depth, Math::max);
+        }
+        
+        requestQueue.offer(request);
+        LockSupport.unpark(audioThread);
+    }
+    
+    /**
+     * Audio thread: drain the queue, then sleep until more requests arrive
+     */
+    private void runAudioThread() {
+        while (running) {
+            SoundRequest request = requestQueue.poll();
+            if (request == null) {
+                LockSupport.park(this);
+                continue;
+            }
+            if (request != END_OF_FRAME) {
+                queueDepth.decrementAndGet();
             }
             
-            Media sound = new Media(resource.toURI().toString());
-            MediaPlayer mediaPlayer = new MediaPlayer(sound);
-            
-            mediaPlayer.setOnError(() -> {
-                System.out.println("Media error: " + mediaPlayer.getError().getMessage());
-            });
-            
-            mediaPlayer.play();
-            
-            // Automatically dispose the player when finished
-            mediaPlayer.setOnEndOfMedia(() -> {
-                mediaPlayer.dispose();
-            });
+            try {
+                handleRequest(request);
+            } catch (Exception e) {
+                System.out.println("Error playing sound '" + request.name() + "': " + e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Handle one request, on the audio thread or, without one, on the
+     * thread that made it
+     * @param request The request
+     */
+    private void handleRequest(SoundRequest request) {
+        synchronized (frameLock) {
+            if (request == END_OF_FRAME) {
+                playPendingSounds();
+            } else {
+                addRequest(request);
+            }
+        }
+    }
+    
+    /**
+     * Play a non-positional sound now, or add a positional one to the
+     * sounds of this frame. Caller holds frameLock.
+     * @param request The request
+     */
+    private void addRequest(SoundRequest request) {
+        if (!request.positional()) {
+            backend.playEffect(request.name(), true);
+            return;
+        }
+        
+        double sourceX = request.sourceX();
+        if (sourceX < listenerLeft - OFF_CAMERA_MARGIN || sourceX > listenerRight + OFF_CAMERA_MARGIN) {
+            offCameraCount.incrementAndGet();
+            return;
+        }
+        
+        if (pendingSounds.contains(request.name())) {
+            coalescedCount.incrementAndGet();
+            return;
+        }
+        pendingSounds.add(request.name());
+    }
+    
+    /**
+     * Play the sounds requested during the last frame, applying the
+     * coalescing window and the voice limits. Caller holds frameLock.
+     */
+    private void playPendingSounds() {
+        if (pendingSounds.isEmpty()) {
+            return;
+        }
+        
+        long now = clock.getAsLong();
+        for (String name : pendingSounds) {
+            // Merge with the same sound played a moment ago
+            Long lastPlay = lastPlayTimes.get(name);
+            if (lastPlay != null && now - lastPlay < COALESCE_WINDOW_NANOS) {
+                coalescedCount.incrementAndGet();
+                continue;
+            }
             
-        } catch (Exception e) {
-            System.out.println("Error playing sound '" + name + "': " + e.getMessage());
-            e.printStackTrace();
+            // Cap the overall voices, then the voices of this sound
+            if (getActiveVoices() >= MAX_TOTAL_VOICES || !backend.playEffect(name, false)) {
+                voiceLimitedCount.incrementAndGet();
+                continue;
+            }
+            lastPlayTimes.put(name, now);
+        }
+        pendingSounds.clear();
+    }
+    
+    /**
+     * Get the number of sound requests waiting for the audio thread
+     * @return Queue depth
+     */
+    public int getQueueDepth() {
+        return queueDepth.get();
+    }
+    
+    /**
+     * Get the number of requests dropped because the queue was full
+     * @return Dropped request count
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+    
+    /**
+     * Get the number of effect voices currently playing
+     * @return Active voice count over all sounds
+     */
+    public int getActiveVoices() {
+        return backend.getActiveVoices();
+    }
+    
+    /**
+     * Load a sound now so the first playSound call does not have to.
+     * Can be called from a loader thread.
+     * @param name Sound name
+     */
+    public void preloadSound(String name) {
+        backend.preloadEffect(name);
+    }
+    
+    /**
+     * Get the names of the sound effects
+     * @return Sound effect names (background music excluded)
+     */
+    public Set<String> getEffectNames() {
+        Set<String> names = new HashSet<>(soundPaths.keySet());
+        names.remove("bgm");
+        return names;
+    }
+    
+    /**
+     * Get the number of media players currently alive
+     * @return Player count (effect voices plus music tracks)
+     */
+    public int getLivePlayerCount() {
+        return backend.getLivePlayerCount();
+    }
+    
+    /**
+     * Get a one-line summary of the sound effect statistics
+     * @return Summary text with trigger-to-play latency and live players
+     */
+    public String getStats() {
+        return String.format("SoundManager: %s, "
+                + "%d requests (%d coalesced, %d off-camera, %d voice-limited, %d dropped), "
+                + "queue depth %d (max %d)",
+                backend.getStats(),
+                requestedCount.get(), coalescedCount.get(), offCameraCount.get(),
+                voiceLimitedCount.get(), droppedCount.get(), getQueueDepth(), maxQueueDepth.get());
+    }
+    
+    /**
+     * Get the audio backend
+     * @return The backend sounds are played on
+     */
+    public AudioBackend getBackend() {
+        return backend;
+    }
+    
+    /**
+     * Release all players. Sounds cannot be played afterwards.
+     */
+    public void dispose() {
+        running = false;
+        if (audioThread != null) {
+            LockSupport.unpark(audioThread);
+            try {
+                audioThread.join(500);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
         }
+        
+        backend.dispose();
     }
     
     /**
@@ -77,6 +371,7 @@ public class SoundManager {
      */
     public void setSoundEnabled(boolean enabled) {
         this.soundEnabled = enabled;
+        backend.setMuted(!enabled);
     }
     
     /**
@@ -92,44 +387,37 @@ public class SoundManager {
      * @return New state of sound (true=enabled)
      */
     public boolean toggleSound() {
-        soundEnabled = !soundEnabled;
+        setSoundEnabled(!soundEnabled);
         return soundEnabled;
     }
 
-    private MediaPlayer bgmPlayer; // ตัวแปรเก็บ MediaPlayer สำหรับ BGM
-
-public void playBackgroundMusic() {
-    if (!soundEnabled) return;
-
-    try {
-        String path = soundPaths.get("bgm");
-        if (path == null) {
-            System.out.println("BGM not found");
-            return;
-        }
-
-        URL resource = getClass().getResource(path);
-        if (resource == null) {
-            System.out.println("BGM resource not found: " + path);
-            return;
-        }
-
-        Media bgm = new Media(resource.toURI().toString());
-        bgmPlayer = new MediaPlayer(bgm);
-        bgmPlayer.setCycleCount(MediaPlayer.INDEFINITE); // เล่นวนลูป
-        bgmPlayer.play();
-        
-    } catch (Exception e) {
-        System.out.println("Error playing BGM: " + e.getMessage());
-        e.printStackTrace();
+    /**
+     * Play the default background music
+     */
+    public void playBackgroundMusic() {
+        playMusic("bgm");
     }
-}
-
-// ฟังก์ชันหยุดเพลงพื้นหลัง
-public void stopBackgroundMusic() {
-    if (bgmPlayer != null) {
-        bgmPlayer.stop();
+    
+    /**
+     * Crossfade to a music track. Must be called on the JavaFX thread.
+     * @param track Track name, or null to fade out the music
+     */
+    public void playMusic(String track) {
+        backend.playMusic(track);
+    }
+    
+    /**
+     * Check if a sound or music track is registered
+     * @param name Sound or track name
+     * @return true if there is a path for it
+     */
+    public boolean hasSound(String name) {
+        return soundPaths.containsKey(name);
+    }
+    
+    // ฟังก์ชันหยุดเพลงพื้นหลัง
+    public void stopBackgroundMusic() {
+        backend.playMusic(null);
     }
-}
 
-}  
\ No newline at end of file
+}
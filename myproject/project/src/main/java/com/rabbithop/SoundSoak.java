@@ -0,0 +1,83 @@
+package com.rabbithop;
+
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.stage.Stage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Plays sound effects through the JavaFX backend for a long session and
+ * samples the live players, the active voices, the heap and the
+ * trigger-to-play latency at a fixed interval. A thread stands in for the
+ * simulation: every 1/60 s it requests random effects from sources spread
+ * over twice the view, then flushes the frame, like GameScreen.tick. With
+ * pooled players the live player count must stay flat over the whole run,
+ * and the latency must not grow.
+ *
+ * Usage: SoundSoak [minutes] [requests per second]
+ */
+public class SoundSoak extends Application {
+
+    private static final long FRAME_NANOS = 1_000_000_000L / 60;
+    private static final int SAMPLE_SECONDS = 10;
+    private static final double VIEW_WIDTH = 1024;
+
+    public static void main(String[] args) {
+        launch(args);
+    }
+
+    @Override
+    public void start(Stage stage) {
+        List<String> args = getParameters().getRaw();
+        double minutes = args.size() > 0 ? Double.parseDouble(args.get(0)) : 30;
+        double requestsPerSecond = args.size() > 1 ? Double.parseDouble(args.get(1)) : 20;
+
+        SoundManager sounds = new SoundManager(new JavaFxAudioBackend());
+        List<String> effects = new ArrayList<>(sounds.getEffectNames());
+        effects.sort(null);
+        for (String effect : effects) {
+            sounds.preloadSound(effect);
+        }
+        sounds.setListenerRange(0, VIEW_WIDTH);
+
+        ScheduledExecutorService threads = Executors.newScheduledThreadPool(2);
+        Random random = new Random(1);
+        double requestsPerFrame = requestsPerSecond / 60;
+        double[] owed = {0};
+
+        threads.scheduleAtFixedRate(() -> {
+            owed[0] += requestsPerFrame;
+            for (; owed[0] >= 1; owed[0]--) {
+                String effect = effects.get(random.nextInt(effects.size()));
+                sounds.requestSound(effect, random.nextDouble() * VIEW_WIDTH * 2);
+            }
+            sounds.flushSounds();
+        }, 0, FRAME_NANOS, TimeUnit.NANOSECONDS);
+
+        long start = System.nanoTime();
+        Runtime runtime = Runtime.getRuntime();
+        System.out.println("  time  players  voices  heap MB  backend");
+        threads.scheduleAtFixedRate(() -> {
+            double elapsed = (System.nanoTime() - start) / 1_000_000_000.0;
+            System.out.printf("%5.0fs %8d %7d %8.1f  %s%n", elapsed,
+                    sounds.getLivePlayerCount(), sounds.getActiveVoices(),
+                    (runtime.totalMemory() - runtime.freeMemory()) / 1_048_576.0,
+                    sounds.getBackend().getStats());
+
+            if (elapsed >= minutes * 60) {
+                threads.shutdown();
+                System.out.println(sounds.getStats());
+                Platform.runLater(() -> {
+                    sounds.dispose();
+                    Platform.exit();
+                });
+            }
+        }, SAMPLE_SECONDS, SAMPLE_SECONDS, TimeUnit.SECONDS);
+    }
+}
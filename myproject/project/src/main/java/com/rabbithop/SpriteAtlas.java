@@ -0,0 +1,87 @@
+package com.rabbithop;
+
+import javafx.scene.image.Image;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lookup of sprite regions in the texture atlas.
+ * The atlas and its index are generated at build time by AtlasPacker
+ * (see pom.xml). If they are missing, e.g. when running without the Maven
+ * build, each sprite falls back to its own image from /images/.
+ */
+public final class SpriteAtlas {
+
+    public static final String ATLAS_IMAGE = "/atlas/sprites.png";
+    public static final String ATLAS_INDEX = "/atlas/sprites.properties";
+
+    private static final Map<String, SpriteRegion> regions = new ConcurrentHashMap<>();
+    private static volatile boolean loaded = false;
+
+    private SpriteAtlas() {
+    }
+
+    /**
+     * Get the region of a sprite
+     * @param name Sprite name, i.e. the image file name without ".png"
+     * @return The sprite region, or null if the sprite could not be loaded
+     */
+    public static SpriteRegion get(String name) {
+        if (!loaded) {
+            preload();
+        }
+
+        SpriteRegion region = regions.get(name);
+        if (region != null) {
+            return region;
+        }
+
+        // Not in the atlas, use the separate image
+        Image image = ImageCache.get("/images/" + name + ".png");
+        if (image == null) {
+            return null;
+        }
+        return regions.computeIfAbsent(name, n -> SpriteRegion.of(image));
+    }
+
+    /**
+     * Load the atlas image and its region index.
+     * Safe to call from a loader thread; later calls do nothing.
+     */
+    public static synchronized void preload() {
+        if (loaded) {
+            return;
+        }
+
+        try (InputStream in = SpriteAtlas.class.getResourceAsStream(ATLAS_INDEX)) {
+            if (in == null) {
+                System.out.println("Sprite atlas not found, using separate images");
+                return;
+            }
+
+            Properties index = new Properties();
+            index.load(in);
+
+            Image atlas = ImageCache.get(ATLAS_IMAGE);
+            if (atlas == null) {
+                return;
+            }
+
+            for (String name : index.stringPropertyNames()) {
+                String[] parts = index.getProperty(name).split(",");
+                regions.put(name, new SpriteRegion(atlas,
+                        Double.parseDouble(parts[0].trim()),
+                        Double.parseDouble(parts[1].trim()),
+                        Double.parseDouble(parts[2].trim()),
+                        Double.parseDouble(parts[3].trim())));
+            }
+            System.out.println("Sprite atlas loaded: " + regions.size() + " regions");
+        } catch (Exception e) {
+            System.out.println("Could not load sprite atlas: " + e.getMessage());
+        } finally {
+            loaded = true;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.rabbithop;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+
+/**
+ * A rectangular area of an image (usually the sprite atlas)
+ */
+public final class SpriteRegion {
+
+    private final Image image;
+    private final double sourceX;
+    private final double sourceY;
+    private final double sourceWidth;
+    private final double sourceHeight;
+
+    public SpriteRegion(Image image, double sourceX, double sourceY, double sourceWidth, double sourceHeight) {
+        this.image = image;
+        this.sourceX = sourceX;
+        this.sourceY = sourceY;
+        this.sourceWidth = sourceWidth;
+        this.sourceHeight = sourceHeight;
+    }
+
+    /**
+     * Create a region covering a whole image
+     * @param image The image
+     * @return Region for the full image
+     */
+    public static SpriteRegion of(Image image) {
+        return new SpriteRegion(image, 0, 0, image.getWidth(), image.getHeight());
+    }
+
+    /**
+     * Draw the region into the given rectangle
+     * @param gc Graphics context to draw on
+     * @param x Destination X
+     * @param y Destination Y
+     * @param width Destination width (negative to flip horizontally)
+     * @param height Destination height
+     */
+    public void draw(GraphicsContext gc, double x, double y, double width, double height) {
+        gc.drawImage(image, sourceX, sourceY, sourceWidth, sourceHeight, x, y, width, height);
+    }
+
+    /**
+     * Draw the region at its own size (no scaling)
+     * @param gc Graphics context to draw on
+     * @param x Destination X
+     * @param y Destination Y
+     */
+    public void draw(GraphicsContext gc, double x, double y) {
+        gc.drawImage(image, sourceX, sourceY, sourceWidth, sourceHeight, x, y, sourceWidth, sourceHeight);
+    }
+
+    /**
+     * Draw the region as a sprite of the given size.
+     * Regions from SpriteVariants are already sized and flipped, so unless
+     * variants are disabled this is a 1:1 blit.
+     * @param gc Graphics context to draw on
+     * @param x Destination X
+     * @param y Destination Y
+     * @param width Sprite width
+     * @param height Sprite height
+     * @param mirrored Whether the sprite should face left (only used without variants)
+     */
+    public void drawSprite(GraphicsContext gc, double x, double y, double width, double height, boolean mirrored) {
+        if (SpriteVariants.isEnabled()) {
+            draw(gc, x, y);
+        } else if (mirrored) {
+            draw(gc, x + width, y, -width, height);
+        } else {
+            draw(gc, x, y, width, height);
+        }
+    }
+
+    // Getters
+    public Image getImage() {
+        return image;
+    }
+
+    public double getSourceX() {
+        return sourceX;
+    }
+
+    public double getSourceY() {
+        return sourceY;
+    }
+
+    public double getSourceWidth() {
+        return sourceWidth;
+    }
+
+    public double getSourceHeight() {
+        return sourceHeight;
+    }
+}
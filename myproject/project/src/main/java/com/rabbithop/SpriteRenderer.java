@@ -0,0 +1,24 @@
+package com.rabbithop;
+
+/**
+ * Destination for sprite draws.
+ * Entities and snapshots describe what to draw through this interface; a
+ * backend decides how: immediately on a GraphicsContext, into a software
+ * frame buffer, or as retained scene-graph nodes that are only moved.
+ */
+public interface SpriteRenderer {
+
+    /**
+     * Draw one entity's sprite, in world coordinates
+     * @param entityId Stable id of the entity (see GameObject.getId), so
+     *                 retained backends can reuse its node across frames
+     * @param sprite The sprite
+     * @param x Left edge
+     * @param y Top edge
+     * @param width Sprite width
+     * @param height Sprite height
+     * @param mirrored Whether the sprite should face left (only used without SpriteVariants)
+     */
+    void drawSprite(int entityId, SpriteRegion sprite, double x, double y,
+                    double width, double height, boolean mirrored);
+}
@@ -0,0 +1,132 @@
+package com.rabbithop;
+
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache of pre-scaled and pre-flipped sprites.
+ * A variant is created once, at its target size, so rendering can draw it
+ * 1:1 instead of scaling or mirroring the source on every frame.
+ * Disable with -Drabbithop.spriteVariants=false to compare render times.
+ */
+public final class SpriteVariants {
+
+    private static final boolean ENABLED =
+            !"false".equals(System.getProperty("rabbithop.spriteVariants"));
+
+    private record Key(SpriteRegion source, int width, int height, boolean flipped) {
+    }
+
+    private static final Map<Key, SpriteRegion> variants = new ConcurrentHashMap<>();
+
+    private SpriteVariants() {
+    }
+
+    /**
+     * Get a sprite at the given size, optionally mirrored horizontally
+     * @param source The source sprite
+     * @param width Target width in pixels
+     * @param height Target height in pixels
+     * @param flipped Whether to mirror the sprite horizontally
+     * @return A region that can be drawn at its own size, or the source if
+     *         it already matches (or variants are disabled)
+     */
+    public static SpriteRegion get(SpriteRegion source, double width, double height, boolean flipped) {
+        if (source == null || !ENABLED) {
+            return source;
+        }
+
+        int w = Math.max(1, (int) Math.round(width));
+        int h = Math.max(1, (int) Math.round(height));
+        if (!flipped && w == source.getSourceWidth() && h == source.getSourceHeight()) {
+            return source;
+        }
+
+        return variants.computeIfAbsent(new Key(source, w, h, flipped), SpriteVariants::create);
+    }
+
+    /**
+     * Check if variants are being used
+     * @return true unless disabled by the system property
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Number of variants created so far
+     * @return Variant count
+     */
+    public static int size() {
+        return variants.size();
+    }
+
+    /**
+     * Resample the source region into a new image.
+     * Each target pixel is the average of the source pixels it covers, so
+     * large sprites (e.g. platform.png) shrink without aliasing.
+     * @param key The variant to create
+     * @return The variant region
+     */
+    private static SpriteRegion create(Key key) {
+        SpriteRegion source = key.source();
+        Image image = source.getImage();
+        int srcX = (int) source.getSourceX();
+        int srcY = (int) source.getSourceY();
+        int srcW = (int) source.getSourceWidth();
+        int srcH = (int) source.getSourceHeight();
+
+        int[] src = new int[srcW * srcH];
+        image.getPixelReader().getPixels(srcX, srcY, srcW, srcH,
+                PixelFormat.getIntArgbInstance(), src, 0, srcW);
+
+        int dstW = key.width();
+        int dstH = key.height();
+        int[] dst = new int[dstW * dstH];
+
+        for (int dy = 0; dy < dstH; dy++) {
+            int sy0 = dy * srcH / dstH;
+            int sy1 = Math.max(sy0 + 1, (dy + 1) * srcH / dstH);
+
+            for (int dx = 0; dx < dstW; dx++) {
+                int sx0 = dx * srcW / dstW;
+                int sx1 = Math.max(sx0 + 1, (dx + 1) * srcW / dstW);
+
+                // Average with alpha weighting so transparent pixels
+                // do not darken the edges
+                long a = 0, r = 0, g = 0, b = 0;
+                for (int sy = sy0; sy < sy1; sy++) {
+                    int row = sy * srcW;
+                    for (int sx = sx0; sx < sx1; sx++) {
+                        int argb = src[row + sx];
+                        int pa = argb >>> 24;
+                        a += pa;
+                        r += ((argb >> 16) & 0xFF) * pa;
+                        g += ((argb >> 8) & 0xFF) * pa;
+                        b += (argb & 0xFF) * pa;
+                    }
+                }
+
+                int count = (sy1 - sy0) * (sx1 - sx0);
+                int argb = 0;
+                if (a > 0) {
+                    argb = (int) (a / count) << 24
+                            | (int) (r / a) << 16
+                            | (int) (g / a) << 8
+                            | (int) (b / a);
+                }
+
+                int tx = key.flipped() ? dstW - 1 - dx : dx;
+                dst[dy * dstW + tx] = argb;
+            }
+        }
+
+        WritableImage variant = new WritableImage(dstW, dstH);
+        variant.getPixelWriter().setPixels(0, 0, dstW, dstH,
+                PixelFormat.getIntArgbInstance(), dst, 0, dstW);
+        return SpriteRegion.of(variant);
+    }
+}
@@ -0,0 +1,141 @@
+package com.rabbithop.engine;
+
+import com.rabbithop.entities.Coin;
+import com.rabbithop.entities.GameObject;
+import com.rabbithop.entities.Platform;
+import com.rabbithop.entities.Rabbit;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+/**
+ * Measures the cost and the allocations of the collision checks.
+ * Compares the old Rectangle2D-based test (getBoundary().intersects())
+ * with GameObject.intersects(), and the discrete Rabbit.shouldLandOn()
+ * with the swept Rabbit.landingTime(). Reports
+ * nanoseconds and allocated bytes per check for each. Allocations are
+ * taken from the per-thread counter of the HotSpot ThreadMXBean. Run it
+ * with -XX:-DoEscapeAnalysis as well: in this tight loop the JIT can
+ * remove the Rectangle2D objects, which it cannot rely on in the game.
+ *
+ * Finally drops rabbits onto a platform at increasing speeds and counts
+ * how often each landing check catches them.
+ *
+ * Usage: CollisionBenchmark [checks per round]
+ */
+public class CollisionBenchmark {
+
+    private static final int ROUNDS = 5;
+    private static final int OBJECTS = 1024;
+
+    // Results are summed here so the JIT cannot drop the checks
+    private static int sink;
+
+    public static void main(String[] args) {
+        int checks = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+
+        Random random = new Random(1);
+        Rabbit[] rabbits = new Rabbit[OBJECTS];
+        Coin[] coins = new Coin[OBJECTS];
+        Platform[] platforms = new Platform[OBJECTS];
+        for (int i = 0; i < OBJECTS; i++) {
+            rabbits[i] = new Rabbit(random.nextDouble() * 400, random.nextDouble() * 400, 50, 90);
+            // Jump and wait until the rabbit falls, so shouldLandOn does the full test
+            rabbits[i].jump();
+            rabbits[i].update(4.0);
+            coins[i] = new Coin(random.nextDouble() * 400, random.nextDouble() * 400);
+            // Platform top just above or below the rabbit's feet, so about half can land
+            platforms[i] = new Platform(rabbits[i].getX() - random.nextDouble() * 200,
+                    rabbits[i].getY() + rabbits[i].getHeight() - random.nextDouble() * 30,
+                    100 + random.nextDouble() * 150, 20, false);
+        }
+
+        for (int round = 1; round <= ROUNDS; round++) {
+            System.out.println("Round " + round + (round == 1 ? " (warm-up)" : ""));
+            measure("Rectangle2D intersects", checks, i -> {
+                GameObject a = rabbits[i & (OBJECTS - 1)];
+                GameObject b = coins[(i * 7) & (OBJECTS - 1)];
+                return a.getBoundary().intersects(b.getBoundary());
+            });
+            measure("GameObject.intersects ", checks, i ->
+                    rabbits[i & (OBJECTS - 1)].intersects(coins[(i * 7) & (OBJECTS - 1)]));
+            measure("Rabbit.shouldLandOn   ", checks, i ->
+                    rabbits[i & (OBJECTS - 1)].shouldLandOn(platforms[i & (OBJECTS - 1)]));
+            measure("Rabbit.landingTime    ", checks, i ->
+                    rabbits[i & (OBJECTS - 1)].landingTime(platforms[i & (OBJECTS - 1)]) >= 0);
+        }
+
+        tunnelingTest(random);
+    }
+
+    /**
+     * Jump off a platform at increasing jump velocities (as with stacked
+     * jump potions) and count how often the rabbit lands on it again
+     */
+    private static void tunnelingTest(Random random) {
+        int trials = 200;
+        System.out.println("Landings out of " + trials + " jumps at 60 ticks/s:");
+        for (double jumpVelocity : new double[] {90, 300, 600, 900, 1200, 2400, 4800}) {
+            int discrete = 0;
+            int swept = 0;
+            for (int trial = 0; trial < trials; trial++) {
+                double offset = random.nextDouble();
+                if (landsAgain(jumpVelocity, offset, false)) {
+                    discrete++;
+                }
+                if (landsAgain(jumpVelocity, offset, true)) {
+                    swept++;
+                }
+            }
+            System.out.printf("  jump %5.0f px/s (%4.1f px/tick at landing): shouldLandOn %3d, landingTime %3d%n",
+                    jumpVelocity, jumpVelocity / 60, discrete, swept);
+        }
+    }
+
+    private static boolean landsAgain(double jumpVelocity, double offset, boolean swept) {
+        Platform platform = new Platform(0, 500, 200, 20, false);
+        Rabbit rabbit = new Rabbit(50, 500 - 64 - offset, 50, jumpVelocity);
+        rabbit.jump();
+        while (rabbit.getY() < 2000) {
+            rabbit.update(1.0 / 60);
+            if (swept ? rabbit.landingTime(platform) >= 0 : rabbit.shouldLandOn(platform)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A collision check by index
+     */
+    private interface Check {
+        boolean run(int i);
+    }
+
+    private static void measure(String name, int checks, Check check) {
+        long bytesBefore = allocatedBytes();
+        long start = System.nanoTime();
+        int hits = 0;
+        for (int i = 0; i < checks; i++) {
+            if (check.run(i)) {
+                hits++;
+            }
+        }
+        long nanos = System.nanoTime() - start;
+        long bytes = allocatedBytes() - bytesBefore;
+        sink += hits;
+
+        System.out.printf("  %s %6.2f ns/check, %8.3f bytes/check (%d hits)%n",
+                name, (double) nanos / checks, (double) bytes / checks, hits);
+    }
+
+    /**
+     * Bytes allocated by the current thread so far
+     */
+    private static long allocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads) {
+            return threads.getCurrentThreadAllocatedBytes();
+        }
+        return 0;
+    }
+}
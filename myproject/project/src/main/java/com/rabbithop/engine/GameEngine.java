@@ -0,0 +1,639 @@
+package com.rabbithop.engine;
+
+import com.rabbithop.AnimationClock;
+import com.rabbithop.entities.Coin;
+import com.rabbithop.entities.GameObject;
+import com.rabbithop.entities.Platform;
+import com.rabbithop.entities.Rabbit;
+import com.rabbithop.entities.ToxicBush;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The game world and its update step, without any UI.
+ * Holds the rabbit, platforms, coins, bushes and camera of one level and
+ * advances them one fixed tick at a time from an input bitmask. Nothing
+ * here needs a display or the JavaFX thread, so the engine can be stepped
+ * as fast as the CPU allows for tests, bots, balancing and benchmarks.
+ * GameScreen drives it on its simulation thread and only draws the result.
+ * Gameplay outcomes (coins, damage, level completion) are reported through
+ * GameEvents; the engine does not keep score itself.
+ * Levels come from a seeded Random and the step only depends on its input,
+ * so a seed plus the per-tick inputs (an InputRecording) replays a run exactly.
+ */
+public class GameEngine {
+
+    // View and level size, in pixels
+    public static final int VIEW_WIDTH = 1024;
+    public static final int VIEW_HEIGHT = 768;
+    public static final int GROUND_HEIGHT = 100;
+    public static final double LEVEL_WIDTH = 3000;
+    public static final int TOTAL_COINS_PER_LEVEL = 12;
+    public static final int TOTAL_BUSHES_PER_LEVEL = 8;
+
+    // Input bits for step()
+    public static final int INPUT_LEFT = 1;
+    public static final int INPUT_RIGHT = 2;
+    public static final int INPUT_JUMP = 4;
+
+    private final GameEvents events;
+    private TickTimer tickTimer = TickTimer.DISABLED;
+    private Random random;
+    private long seed;
+
+    private final Rabbit rabbit;
+    private final List<Platform> platforms = new ArrayList<>();
+    private final List<Coin> coins = new ArrayList<>();
+    private final List<ToxicBush> toxicBushes = new ArrayList<>();
+
+    // Coins and bushes by location, so collisions and culling only look nearby
+    private static final double GRID_CELL_SIZE = 128;
+    private final SpatialGrid<Coin> coinGrid = new SpatialGrid<>(GRID_CELL_SIZE);
+    private final SpatialGrid<ToxicBush> bushGrid = new SpatialGrid<>(GRID_CELL_SIZE);
+    private final List<Coin> nearbyCoins = new ArrayList<>();
+    private final List<ToxicBush> nearbyBushes = new ArrayList<>();
+    // Bushes counting down their hit cooldown; the only entities with per-tick state
+    private final List<ToxicBush> coolingBushes = new ArrayList<>();
+    private int collectedCoins = 0;
+
+    // Platforms by horizontal extent, for landing checks
+    private final PlatformIndex platformIndex = new PlatformIndex();
+    private final List<Platform> platformsBelow = new ArrayList<>();
+
+    // Sub-stepping (-Drabbithop.subSteps=true): fast moves are split so that
+    // no step is longer than MAX_STEP_DISTANCE, so the rabbit cannot skip
+    // coins and bushes either. Landing is swept and does not need it.
+    private static final double MAX_STEP_DISTANCE = 16;
+    private static final int MAX_SUB_STEPS = 8;
+    private boolean subStepping = Boolean.getBoolean("rabbithop.subSteps");
+
+    // Camera system for side-scrolling
+    private double cameraX = 0;
+    private double prevCameraX = 0;
+
+    private boolean levelComplete = false;
+    private long tickCount = 0;
+
+    // Incremented whenever a tick changes what is drawn, so a still world is not redrawn
+    private long stateVersion = 0;
+    private int lastRabbitPose = -1;
+    private int lastCoinFrame = -1;
+
+    /**
+     * @param events Receives gameplay events, called on the stepping thread
+     */
+    public GameEngine(GameEvents events) {
+        this.events = events;
+        this.rabbit = new Rabbit(100, getStartY(), 0, 0);
+    }
+
+    /**
+     * Generate a level and put the rabbit at the start
+     * @param level Level number
+     * @param rabbitSpeed Horizontal speed of the rabbit
+     * @param jumpHeight Jump velocity of the rabbit, also limits platform spacing
+     * @param seed Seed for the level layout
+     */
+    public void setupLevel(int level, double rabbitSpeed, double jumpHeight, long seed) {
+        this.seed = seed;
+        this.random = new Random(seed);
+
+        // Reset entities
+        platforms.clear();
+        coins.clear();
+        toxicBushes.clear();
+        coolingBushes.clear();
+
+        generatePlatforms(level, jumpHeight);
+
+        // Generate coins
+        for (int i = 0; i < TOTAL_COINS_PER_LEVEL; i++) {
+            placeCoin();
+        }
+
+        // Generate toxic bushes
+        for (int i = 0; i < TOTAL_BUSHES_PER_LEVEL; i++) {
+            placeToxicBush();
+        }
+
+        // Index the platforms, coins and bushes (they never move)
+        platformIndex.build(platforms);
+        coinGrid.clear();
+        for (Coin coin : coins) {
+            coinGrid.insert(coin);
+        }
+        bushGrid.clear();
+        for (ToxicBush bush : toxicBushes) {
+            bushGrid.insert(bush);
+        }
+        collectedCoins = 0;
+
+        // Reset rabbit
+        rabbit.reset(100, getStartY());
+        rabbit.setSpeed(rabbitSpeed);
+        rabbit.setJumpHeight(jumpHeight);
+
+        // Reset camera and animations
+        cameraX = 0;
+        prevCameraX = 0;
+        AnimationClock.reset();
+        levelComplete = false;
+        tickCount = 0;
+        stateVersion++;
+    }
+
+    /**
+     * Generate the ground and the platforms of a level
+     * @param level Level number
+     * @param maxJumpHeight Maximum jump height, platforms are kept reachable
+     */
+    private void generatePlatforms(int level, double maxJumpHeight) {
+        // Create ground platform
+        Platform groundPlatform = new Platform(0, VIEW_HEIGHT - GROUND_HEIGHT, LEVEL_WIDTH, GROUND_HEIGHT, true);
+        platforms.add(groundPlatform);
+
+        // Divide the level into vertical sections for better platform distribution
+        int numVerticalSections = 6;
+        double sectionHeight = (VIEW_HEIGHT - GROUND_HEIGHT - 100) / numVerticalSections;
+
+        // Generate platforms based on level
+        int numPlatforms = 15 + (level * 5); // More platforms in higher levels
+        List<Platform> tempPlatforms = new ArrayList<>();
+        tempPlatforms.add(groundPlatform);
+
+        // Place platforms starting from the bottom, ensuring they're reachable
+        for (int section = numVerticalSections - 1; section >= 0; section--) {
+            int platformsInSection = numPlatforms / numVerticalSections;
+            if (section == 0) {
+                // Add any remaining platforms to the top section
+                platformsInSection += numPlatforms % numVerticalSections;
+            }
+
+            // Calculate y range for this section
+            double minY = section * sectionHeight + 100;
+            double maxY = (section + 1) * sectionHeight + 100;
+
+            // Create platforms in this section
+            for (int i = 0; i < platformsInSection; i++) {
+                boolean validPosition = false;
+                Platform newPlatform = null;
+                int attempts = 0;
+
+                // Try to find a non-overlapping position that's reachable
+                while (!validPosition && attempts < 20) {
+                    double x = random.nextDouble() * (LEVEL_WIDTH - 200);
+                    double y = minY + random.nextDouble() * (maxY - minY);
+                    double width = 100 + random.nextDouble() * 150;
+
+                    newPlatform = new Platform(x, y, width, 20, false);
+
+                    // Check for platform overlap
+                    boolean overlaps = false;
+                    for (Platform p : tempPlatforms) {
+                        if (platformsOverlap(newPlatform, p)) {
+                            overlaps = true;
+                            break;
+                        }
+                    }
+
+                    // Check if this platform is reachable from at least one platform below
+                    boolean isReachable = false;
+
+                    // Ground is always a reachable starting point
+                    if (y > VIEW_HEIGHT - GROUND_HEIGHT - maxJumpHeight) {
+                        isReachable = true;
+                    } else {
+                        for (Platform p : tempPlatforms) {
+                            // Only consider platforms below this one
+                            if (p.getY() > y && p.getY() - maxJumpHeight <= y) {
+                                // Check horizontal overlap or proximity
+                                if (x < p.getX() + p.getWidth() + 100 &&
+                                        x + width + 100 > p.getX()) {
+                                    isReachable = true;
+                                    break;
+                                }
+                            }
+                        }
+                    }
+
+                    validPosition = !overlaps && isReachable;
+                    attempts++;
+                }
+
+                if (validPosition && newPlatform != null) {
+                    tempPlatforms.add(newPlatform);
+                }
+            }
+        }
+
+        // Add all platforms except the ground (which was already added)
+        for (int i = 1; i < tempPlatforms.size(); i++) {
+            platforms.add(tempPlatforms.get(i));
+        }
+    }
+
+    /**
+     * Check if two platforms overlap
+     * @param p1 First platform
+     * @param p2 Second platform
+     * @return true if the platforms overlap
+     */
+    private boolean platformsOverlap(Platform p1, Platform p2) {
+        // Add a small buffer to prevent platforms from being too close
+        double buffer = 10;
+
+        // Check for horizontal and vertical overlap
+        boolean horizontalOverlap = p1.getX() < p2.getX() + p2.getWidth() + buffer &&
+                p1.getX() + p1.getWidth() + buffer > p2.getX();
+
+        boolean verticalOverlap = p1.getY() < p2.getY() + p2.getHeight() + buffer &&
+                p1.getY() + p1.getHeight() + buffer > p2.getY();
+
+        return horizontalOverlap && verticalOverlap;
+    }
+
+    /**
+     * Place a coin on a platform
+     */
+    private void placeCoin() {
+        // Try to find a suitable platform (not ground)
+        Platform platform = null;
+        while (platform == null || platform.isGround()) {
+            int index = random.nextInt(platforms.size());
+            platform = platforms.get(index);
+        }
+
+        // Place coin on the platform
+        double coinX = platform.getX() + random.nextDouble() * (platform.getWidth() - 32);
+        double coinY = platform.getY() - 32 - 5; // Above the platform
+
+        coins.add(new Coin(coinX, coinY));
+    }
+
+    /**
+     * Place a toxic bush on a platform
+     */
+    private void placeToxicBush() {
+        // Try to find a suitable platform (not ground)
+        Platform platform = null;
+        while (platform == null || platform.isGround()) {
+            int index = random.nextInt(platforms.size());
+            platform = platforms.get(index);
+        }
+
+        // Place bush on the platform
+        double bushX = platform.getX() + random.nextDouble() * (platform.getWidth() - 48);
+        double bushY = platform.getY() - 48; // Above the platform
+
+        // Check if bush overlaps with coins
+        boolean overlapsWithCoin = false;
+        for (Coin coin : coins) {
+            if (Math.abs(bushX - coin.getX()) < 48 && Math.abs(bushY - coin.getY()) < 48) {
+                overlapsWithCoin = true;
+                break;
+            }
+        }
+
+        if (!overlapsWithCoin) {
+            toxicBushes.add(new ToxicBush(bushX, bushY));
+        } else {
+            // Try again if there's overlap
+            placeToxicBush();
+        }
+    }
+
+    /**
+     * Advance the world by one tick. Does nothing once the level is complete.
+     * @param input INPUT_* bits held during this tick
+     * @param deltaTime Tick duration in seconds
+     */
+    public void step(int input, double deltaTime) {
+        if (levelComplete) {
+            return;
+        }
+        tickTimer.startTick();
+
+        // Remember the state of the moving objects for render interpolation
+        rabbit.savePreviousPosition();
+        prevCameraX = cameraX;
+
+        // Handle input
+        handleInput(input);
+        tickTimer.lap(TickTimer.Phase.INPUT);
+
+        // Move the rabbit and land it on platforms, in sub-steps if it is fast
+        int subSteps = getSubSteps(deltaTime);
+        for (int i = 0; i < subSteps; i++) {
+            // Update rabbit
+            rabbit.update(deltaTime / subSteps);
+            tickTimer.lap(TickTimer.Phase.PHYSICS);
+
+            // Check platform collisions
+            handlePlatformCollisions();
+
+            // Pickups along the way; the last sub-step is checked below
+            if (i < subSteps - 1) {
+                handleCoinCollisions();
+                handleBushCollisions();
+            }
+            tickTimer.lap(TickTimer.Phase.COLLISIONS);
+        }
+
+        // Advance coin and rabbit animations
+        AnimationClock.advance(deltaTime);
+
+        // Count down the cooldowns of the bushes that were hit (coins have no per-tick state)
+        for (int i = coolingBushes.size() - 1; i >= 0; i--) {
+            ToxicBush bush = coolingBushes.get(i);
+            bush.update(deltaTime);
+            if (bush.canDamageRabbit()) {
+                coolingBushes.remove(i);
+            }
+        }
+        tickTimer.lap(TickTimer.Phase.PHYSICS);
+
+        // Check coin collisions
+        handleCoinCollisions();
+
+        // Check toxic bush collisions
+        handleBushCollisions();
+        tickTimer.lap(TickTimer.Phase.COLLISIONS);
+
+        // Update camera
+        updateCamera();
+        tickTimer.lap(TickTimer.Phase.CAMERA);
+
+        // Check level completion
+        checkLevelCompletion();
+
+        updateStateVersion();
+        tickCount++;
+        tickTimer.endTick();
+    }
+
+    /**
+     * Apply the held keys to the rabbit
+     * @param input INPUT_* bits
+     */
+    private void handleInput(int input) {
+        // Reset velocity first
+        rabbit.stopMoving();
+
+        // Handle left/right movement
+        if ((input & INPUT_LEFT) != 0) {
+            rabbit.moveLeft();
+        }
+
+        if ((input & INPUT_RIGHT) != 0) {
+            rabbit.moveRight();
+        }
+
+        // Handle jumping
+        if ((input & INPUT_JUMP) != 0 && rabbit.jump()) {
+            events.rabbitJumped(rabbit.getX());
+        }
+    }
+
+    /**
+     * Get the number of sub-steps for this tick
+     * @param deltaTime Tick duration in seconds
+     * @return 1 unless sub-stepping is on and the rabbit is fast
+     */
+    private int getSubSteps(double deltaTime) {
+        if (!subStepping) {
+            return 1;
+        }
+        double distance = Math.max(Math.abs(rabbit.getVelocityX()), Math.abs(rabbit.getVelocityY())) * deltaTime;
+        return Math.min(MAX_SUB_STEPS, Math.max(1, (int) Math.ceil(distance / MAX_STEP_DISTANCE)));
+    }
+
+    /**
+     * Handle collisions with platforms
+     */
+    private void handlePlatformCollisions() {
+        // Only a falling rabbit can land, and only on platforms under the
+        // middle of its path
+        platformsBelow.clear();
+        if (rabbit.getVelocityY() > 0) {
+            double moveLeft = Math.min(rabbit.getMoveStartX(), rabbit.getX());
+            double moveRight = Math.max(rabbit.getMoveStartX(), rabbit.getX());
+            platformIndex.query(moveLeft + rabbit.getWidth() * 0.3, moveRight + rabbit.getWidth() * 0.7, platformsBelow);
+        }
+
+        // Land on the first platform hit along the move (the highest on a tie)
+        Platform landing = null;
+        double firstImpact = Double.MAX_VALUE;
+        for (Platform platform : platformsBelow) {
+            double timeOfImpact = rabbit.landingTime(platform);
+            if (timeOfImpact >= 0 && timeOfImpact < firstImpact) {
+                firstImpact = timeOfImpact;
+                landing = platform;
+            }
+        }
+        if (landing != null) {
+            rabbit.land(landing.getY());
+        }
+
+        // Check if rabbit is off-screen (fell)
+        if (rabbit.getY() > VIEW_HEIGHT) {
+            rabbit.reset(100, getStartY());
+            events.rabbitFell();
+        }
+
+        // Check level boundaries
+        if (rabbit.getX() < 0) {
+            rabbit.setX(0);
+        } else if (rabbit.getX() > LEVEL_WIDTH - rabbit.getWidth()) {
+            rabbit.setX(LEVEL_WIDTH - rabbit.getWidth());
+        }
+    }
+
+    /**
+     * Handle collisions with coins
+     */
+    private void handleCoinCollisions() {
+        nearbyCoins.clear();
+        coinGrid.query(rabbit.getX(), rabbit.getY(),
+                rabbit.getX() + rabbit.getWidth(), rabbit.getY() + rabbit.getHeight(), nearbyCoins);
+
+        for (Coin coin : nearbyCoins) {
+            if (!coin.isCollected() && rabbit.intersects(coin)) {
+                coin.collect();
+                collectedCoins++;
+                stateVersion++;
+                events.coinCollected(coin);
+            }
+        }
+    }
+
+    /**
+     * Handle collisions with toxic bushes
+     */
+    private void handleBushCollisions() {
+        nearbyBushes.clear();
+        bushGrid.query(rabbit.getX(), rabbit.getY(),
+                rabbit.getX() + rabbit.getWidth(), rabbit.getY() + rabbit.getHeight(), nearbyBushes);
+
+        for (ToxicBush bush : nearbyBushes) {
+            if (bush.canDamageRabbit() && rabbit.intersects(bush)) {
+                bush.hitByRabbit();
+                coolingBushes.add(bush);
+                events.bushHit(bush);
+            }
+        }
+    }
+
+    /**
+     * Update camera position to follow the rabbit
+     */
+    private void updateCamera() {
+        // Center the camera on the rabbit
+        double targetX = rabbit.getX() - VIEW_WIDTH / 2 + rabbit.getWidth() / 2;
+
+        // Clamp camera to level boundaries
+        if (targetX < 0) {
+            targetX = 0;
+        } else if (targetX > LEVEL_WIDTH - VIEW_WIDTH) {
+            targetX = LEVEL_WIDTH - VIEW_WIDTH;
+        }
+
+        // Smooth camera movement
+        cameraX = cameraX * 0.9 + targetX * 0.1;
+    }
+
+    /**
+     * Check if the level is completed
+     */
+    private void checkLevelCompletion() {
+        // Level is completed when all coins are collected
+        if (getCollectedCoins() >= TOTAL_COINS_PER_LEVEL) {
+            levelComplete = true;
+            events.levelCompleted();
+        }
+    }
+
+    /**
+     * Get the Y the rabbit starts (and restarts after a fall) at
+     * @return Start Y
+     */
+    private static double getStartY() {
+        return VIEW_HEIGHT - GROUND_HEIGHT - 100;
+    }
+
+    /**
+     * Look up and scale all entity sprites.
+     * Only needed when the world is going to be drawn.
+     */
+    public void prepareSprites() {
+        rabbit.prepareSprite();
+        for (GameObject object : platforms) {
+            object.prepareSprite();
+        }
+        for (GameObject object : coins) {
+            object.prepareSprite();
+        }
+        for (GameObject object : toxicBushes) {
+            object.prepareSprite();
+        }
+    }
+
+    /**
+     * Turn sub-stepping of fast moves on or off
+     * @param subStepping Whether to sub-step
+     */
+    public void setSubStepping(boolean subStepping) {
+        this.subStepping = subStepping;
+    }
+
+    /**
+     * Set the timer used to profile the update phases
+     * @param tickTimer The timer, or TickTimer.DISABLED
+     */
+    public void setTickTimer(TickTimer tickTimer) {
+        this.tickTimer = tickTimer;
+    }
+
+    /**
+     * Count the tick as a change if the rabbit or the camera moved, the
+     * rabbit's pose changed or the coins turned to another spin frame
+     */
+    private void updateStateVersion() {
+        int rabbitPose = rabbit.getPose();
+        int coinFrame = collectedCoins < coins.size() ? Coin.getAnimationFrame() : lastCoinFrame;
+        if (rabbit.getX() != rabbit.getPrevX() || rabbit.getY() != rabbit.getPrevY() || cameraX != prevCameraX
+                || rabbitPose != lastRabbitPose || coinFrame != lastCoinFrame) {
+            stateVersion++;
+        }
+        lastRabbitPose = rabbitPose;
+        lastCoinFrame = coinFrame;
+    }
+
+    /**
+     * Get a number that changes whenever the drawn state of the world
+     * changes; equal versions look the same on screen
+     * @return State version
+     */
+    public long getStateVersion() {
+        return stateVersion;
+    }
+
+    /**
+     * Get the number of coins collected in this level
+     * @return Collected coin count
+     */
+    public int getCollectedCoins() {
+        return collectedCoins;
+    }
+
+    /**
+     * Find the coins and bushes in a horizontal range of the level
+     * (over the full level height), e.g. the visible part
+     * @param minX Left edge
+     * @param maxX Right edge
+     * @param coinsOut List the coins are appended to
+     * @param bushesOut List the bushes are appended to
+     */
+    public void queryRange(double minX, double maxX, List<Coin> coinsOut, List<ToxicBush> bushesOut) {
+        coinGrid.query(minX, 0, maxX, VIEW_HEIGHT, coinsOut);
+        bushGrid.query(minX, 0, maxX, VIEW_HEIGHT, bushesOut);
+    }
+
+    // Getters
+    public Rabbit getRabbit() {
+        return rabbit;
+    }
+
+    public List<Platform> getPlatforms() {
+        return platforms;
+    }
+
+    public List<Coin> getCoins() {
+        return coins;
+    }
+
+    public List<ToxicBush> getToxicBushes() {
+        return toxicBushes;
+    }
+
+    public double getCameraX() {
+        return cameraX;
+    }
+
+    public double getPrevCameraX() {
+        return prevCameraX;
+    }
+
+    public boolean isLevelComplete() {
+        return levelComplete;
+    }
+
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+}
@@ -0,0 +1,45 @@
+package com.rabbithop.engine;
+
+import com.rabbithop.entities.Coin;
+import com.rabbithop.entities.ToxicBush;
+
+/**
+ * Gameplay events reported by the GameEngine.
+ * Called on the thread that steps the engine. All methods do nothing by
+ * default, so headless runs only override what they care about.
+ */
+public interface GameEvents {
+
+    /**
+     * The rabbit took off from a platform
+     * @param x Rabbit X position
+     */
+    default void rabbitJumped(double x) {
+    }
+
+    /**
+     * The rabbit picked up a coin
+     * @param coin The coin
+     */
+    default void coinCollected(Coin coin) {
+    }
+
+    /**
+     * The rabbit ran into a toxic bush
+     * @param bush The bush
+     */
+    default void bushHit(ToxicBush bush) {
+    }
+
+    /**
+     * The rabbit fell out of the level and was put back at the start
+     */
+    default void rabbitFell() {
+    }
+
+    /**
+     * All coins of the level are collected. The engine stops advancing.
+     */
+    default void levelCompleted() {
+    }
+}
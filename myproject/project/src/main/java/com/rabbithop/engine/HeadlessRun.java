@@ -0,0 +1,98 @@
+package com.rabbithop.engine;
+
+import com.rabbithop.RecordingAudioBackend;
+import com.rabbithop.SoundManager;
+import com.rabbithop.entities.Coin;
+import com.rabbithop.entities.ToxicBush;
+
+/**
+ * Runs the game engine without a display, as fast as the CPU allows.
+ * A simple bot runs back and forth across the level and jumps at a fixed
+ * rhythm; finished levels are replaced by the next one. Sounds go through
+ * a SoundManager on a RecordingAudioBackend, clocked by the simulated time,
+ * so its culling, coalescing and voice limits run as in the game. Prints
+ * the tick rate and what happened, so it doubles as a simulation benchmark.
+ *
+ * Usage: HeadlessRun [ticks] [start level] [seed]
+ */
+public class HeadlessRun {
+
+    private static final double TICK_DURATION = 1.0 / 60;
+
+    // Starting stats of a new game (see GameManager)
+    private static final double RABBIT_SPEED = 50;
+    private static final double JUMP_HEIGHT = 90;
+
+    public static void main(String[] args) {
+        long ticks = args.length > 0 ? Long.parseLong(args[0]) : 1_000_000;
+        int level = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 1;
+
+        RecordingAudioBackend audio = new RecordingAudioBackend();
+        SoundManager sounds = new SoundManager(audio);
+        long[] tick = {0};
+        sounds.setClock(() -> (long) (tick[0] * TICK_DURATION * 1_000_000_000L));
+
+        long[] counts = new long[4]; // jumps, coins, bush hits, falls
+        GameEngine engine = new GameEngine(new GameEvents() {
+            @Override
+            public void rabbitJumped(double x) {
+                counts[0]++;
+                sounds.requestSound("jump", x);
+            }
+
+            @Override
+            public void coinCollected(Coin coin) {
+                counts[1]++;
+                sounds.requestSound("coin_collect", coin.getX());
+            }
+
+            @Override
+            public void bushHit(ToxicBush bush) {
+                counts[2]++;
+                sounds.requestSound("hurt", bush.getX());
+            }
+
+            @Override
+            public void rabbitFell() {
+                counts[3]++;
+            }
+        });
+        engine.setupLevel(level, RABBIT_SPEED, JUMP_HEIGHT, seed);
+
+        int levelsCompleted = 0;
+        long start = System.nanoTime();
+        for (; tick[0] < ticks; tick[0]++) {
+            sounds.setListenerRange(engine.getCameraX(), engine.getCameraX() + GameEngine.VIEW_WIDTH);
+            engine.step(botInput(tick[0]), TICK_DURATION);
+            sounds.flushSounds();
+
+            if (engine.isLevelComplete()) {
+                levelsCompleted++;
+                sounds.playSound("level_complete");
+                engine.setupLevel(++level, RABBIT_SPEED, JUMP_HEIGHT, seed + level);
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        System.out.printf("%d ticks in %.2f s (%.0f ticks/s, %.0fx real time)%n",
+                ticks, seconds, ticks / seconds, ticks * TICK_DURATION / seconds);
+        System.out.printf("%d jumps, %d coins, %d bush hits, %d falls, %d levels completed%n",
+                counts[0], counts[1], counts[2], counts[3], levelsCompleted);
+        System.out.println(sounds.getStats());
+        sounds.dispose();
+    }
+
+    /**
+     * Input of the bot: cross the level in alternating directions, jump every 45 ticks
+     * @param tick Tick number
+     * @return INPUT_* bits
+     */
+    private static int botInput(long tick) {
+        int input = (tick / 3600) % 2 == 0 ? GameEngine.INPUT_RIGHT : GameEngine.INPUT_LEFT;
+        if (tick % 45 == 0) {
+            input |= GameEngine.INPUT_JUMP;
+        }
+        return input;
+    }
+}
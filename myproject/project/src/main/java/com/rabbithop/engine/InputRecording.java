@@ -0,0 +1,183 @@
+package com.rabbithop.engine;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * The input of one level run, tick by tick.
+ * Together with the level settings (number, seed, rabbit stats, tick
+ * duration) this is everything the GameEngine needs to reproduce the run
+ * exactly. On disk the inputs are run-length encoded: a byte of input
+ * bits followed by a varint repeat count, so a minute of play is usually
+ * a few hundred bytes.
+ */
+public class InputRecording {
+
+    private static final int MAGIC = 0x52485250; // "RHRP"
+    private static final int VERSION = 1;
+
+    private final int level;
+    private final long seed;
+    private final double rabbitSpeed;
+    private final double jumpHeight;
+    private final double tickDuration;
+
+    // One byte of INPUT_* bits per tick
+    private byte[] inputs = new byte[1024];
+    private int tickCount = 0;
+
+    /**
+     * Start an empty recording
+     * @param level Level number
+     * @param seed Seed the level was generated with
+     * @param rabbitSpeed Rabbit speed during the run
+     * @param jumpHeight Rabbit jump height during the run
+     * @param tickDuration Duration of one tick in seconds
+     */
+    public InputRecording(int level, long seed, double rabbitSpeed, double jumpHeight, double tickDuration) {
+        this.level = level;
+        this.seed = seed;
+        this.rabbitSpeed = rabbitSpeed;
+        this.jumpHeight = jumpHeight;
+        this.tickDuration = tickDuration;
+    }
+
+    /**
+     * Append the input of the next tick
+     * @param input INPUT_* bits
+     */
+    public void record(int input) {
+        if (tickCount == inputs.length) {
+            inputs = Arrays.copyOf(inputs, inputs.length * 2);
+        }
+        inputs[tickCount++] = (byte) input;
+    }
+
+    /**
+     * Get the input of a tick
+     * @param tick Tick number, from 0 to getTickCount() - 1
+     * @return INPUT_* bits
+     */
+    public int getInput(int tick) {
+        return inputs[tick];
+    }
+
+    /**
+     * Set up a level in an engine exactly as it was for this recording
+     * @param engine The engine
+     */
+    public void setupLevel(GameEngine engine) {
+        engine.setupLevel(level, rabbitSpeed, jumpHeight, seed);
+    }
+
+    /**
+     * Write the recording to a file
+     * @param file Destination
+     * @throws IOException If the file cannot be written
+     */
+    public void save(Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeInt(level);
+            out.writeLong(seed);
+            out.writeDouble(rabbitSpeed);
+            out.writeDouble(jumpHeight);
+            out.writeDouble(tickDuration);
+            out.writeInt(tickCount);
+
+            // Runs of identical input
+            int tick = 0;
+            while (tick < tickCount) {
+                byte input = inputs[tick];
+                int run = 1;
+                while (tick + run < tickCount && inputs[tick + run] == input) {
+                    run++;
+                }
+                out.writeByte(input);
+                writeVarInt(out, run);
+                tick += run;
+            }
+        }
+    }
+
+    /**
+     * Read a recording written by save()
+     * @param file Source
+     * @return The recording
+     * @throws IOException If the file cannot be read or is not a recording
+     */
+    public static InputRecording load(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readByte() != VERSION) {
+                throw new IOException("Not a replay file: " + file);
+            }
+
+            InputRecording recording = new InputRecording(in.readInt(), in.readLong(),
+                    in.readDouble(), in.readDouble(), in.readDouble());
+            int tickCount = in.readInt();
+            recording.inputs = new byte[Math.max(tickCount, 1)];
+            while (recording.tickCount < tickCount) {
+                byte input = in.readByte();
+                int run = readVarInt(in);
+                if (run > tickCount - recording.tickCount) {
+                    throw new IOException("Corrupt replay file: " + file);
+                }
+                Arrays.fill(recording.inputs, recording.tickCount, recording.tickCount + run, input);
+                recording.tickCount += run;
+            }
+            return recording;
+        }
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint in replay file");
+    }
+
+    // Getters
+    public int getLevel() {
+        return level;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public double getRabbitSpeed() {
+        return rabbitSpeed;
+    }
+
+    public double getJumpHeight() {
+        return jumpHeight;
+    }
+
+    public double getTickDuration() {
+        return tickDuration;
+    }
+
+    public int getTickCount() {
+        return tickCount;
+    }
+}
@@ -0,0 +1,122 @@
+package com.rabbithop.engine;
+
+import com.rabbithop.entities.Platform;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Interval index over the horizontal extent of the platforms.
+ * Platforms are sorted by their left edge and viewed as a balanced binary
+ * tree (the middle of each range is its root); every node also stores the
+ * rightmost edge in its subtree. A query skips subtrees that end before
+ * the span and stops at platforms that start after it, so it visits
+ * O(log n + k) nodes for k results, even with the level-wide ground in
+ * the set. Platforms do not move, so the index is built once per level.
+ */
+public class PlatformIndex {
+
+    private Platform[] sorted = new Platform[0];
+    private double[] lefts = new double[0];
+    private double[] rights = new double[0];
+
+    // Rightmost edge in the subtree rooted at each index
+    private double[] maxRights = new double[0];
+
+    /**
+     * Rebuild the index for a new set of platforms
+     * @param platforms The platforms of the level
+     */
+    public void build(List<Platform> platforms) {
+        List<Platform> byLeft = new ArrayList<>(platforms);
+        byLeft.sort(Comparator.comparingDouble(Platform::getX).thenComparing(PlatformIndex::compareTopDown));
+
+        int count = byLeft.size();
+        sorted = byLeft.toArray(new Platform[0]);
+        lefts = new double[count];
+        rights = new double[count];
+        maxRights = new double[count];
+        for (int i = 0; i < count; i++) {
+            lefts[i] = sorted[i].getX();
+            rights[i] = sorted[i].getX() + sorted[i].getWidth();
+        }
+        computeMaxRights(0, count - 1);
+    }
+
+    /**
+     * Find the platforms that overlap a horizontal span
+     * @param minX Left edge of the span
+     * @param maxX Right edge of the span
+     * @param result List the platforms are appended to, highest first
+     * @return Number of platforms appended
+     */
+    public int query(double minX, double maxX, List<Platform> result) {
+        int start = result.size();
+        collect(0, sorted.length - 1, minX, maxX, result);
+
+        // Few results, so an insertion sort into top-down order is enough
+        for (int i = start + 1; i < result.size(); i++) {
+            Platform platform = result.get(i);
+            int j = i - 1;
+            while (j >= start && compareTopDown(result.get(j), platform) > 0) {
+                result.set(j + 1, result.get(j));
+                j--;
+            }
+            result.set(j + 1, platform);
+        }
+        return result.size() - start;
+    }
+
+    /**
+     * Get the number of platforms in the index
+     * @return Platform count
+     */
+    public int size() {
+        return sorted.length;
+    }
+
+    /**
+     * Order platforms highest first; ties by position, so the order is fixed
+     */
+    private static int compareTopDown(Platform a, Platform b) {
+        int order = Double.compare(a.getY(), b.getY());
+        if (order == 0) {
+            order = Double.compare(a.getX(), b.getX());
+        }
+        if (order == 0) {
+            order = Double.compare(a.getWidth(), b.getWidth());
+        }
+        return order;
+    }
+
+    private double computeMaxRights(int low, int high) {
+        if (low > high) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        int mid = (low + high) >>> 1;
+        double max = Math.max(rights[mid],
+                Math.max(computeMaxRights(low, mid - 1), computeMaxRights(mid + 1, high)));
+        maxRights[mid] = max;
+        return max;
+    }
+
+    private void collect(int low, int high, double minX, double maxX, List<Platform> result) {
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            // Nothing in this subtree reaches the span
+            if (maxRights[mid] <= minX) {
+                return;
+            }
+            collect(low, mid - 1, minX, maxX, result);
+            // This platform and everything right of it start after the span
+            if (lefts[mid] >= maxX) {
+                return;
+            }
+            if (rights[mid] > minX) {
+                result.add(sorted[mid]);
+            }
+            low = mid + 1;
+        }
+    }
+}
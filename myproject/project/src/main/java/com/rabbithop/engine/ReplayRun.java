@@ -0,0 +1,113 @@
+package com.rabbithop.engine;
+
+import com.rabbithop.RecordingAudioBackend;
+import com.rabbithop.SoundManager;
+import com.rabbithop.entities.Coin;
+import com.rabbithop.entities.Rabbit;
+import com.rabbithop.entities.ToxicBush;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Plays back a recorded run without a display, as fast as possible.
+ * Every pass starts from the recorded seed and feeds the recorded inputs,
+ * and must end in exactly the same state and play the same sounds (through
+ * a SoundManager on a RecordingAudioBackend, clocked by the simulated time);
+ * the state hash is printed so
+ * runs can also be compared across builds. Repeating the replay makes it
+ * a fixed workload for performance regression checks.
+ *
+ * Usage: ReplayRun file [passes]
+ */
+public class ReplayRun {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: ReplayRun file [passes]");
+            return;
+        }
+        InputRecording recording = InputRecording.load(Path.of(args[0]));
+        int passes = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+
+        System.out.printf("Replaying level %d, seed %d, %d ticks%n",
+                recording.getLevel(), recording.getSeed(), recording.getTickCount());
+
+        long firstHash = 0;
+        for (int pass = 0; pass < passes; pass++) {
+            long start = System.nanoTime();
+            long hash = replay(recording);
+            double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+            System.out.printf("Pass %d: %.3f s (%.0f ticks/s), state %016x%n",
+                    pass + 1, seconds, recording.getTickCount() / seconds, hash);
+            if (pass == 0) {
+                firstHash = hash;
+            } else if (hash != firstHash) {
+                System.out.println("Replay is not deterministic: pass " + (pass + 1) + " differs from pass 1");
+            }
+        }
+    }
+
+    /**
+     * Run a recording once in a fresh engine
+     * @param recording The recording
+     * @return Hash of the final world state, the events seen and the sounds played
+     */
+    private static long replay(InputRecording recording) {
+        RecordingAudioBackend audio = new RecordingAudioBackend();
+        SoundManager sounds = new SoundManager(audio);
+        int[] tick = {0};
+        sounds.setClock(() -> (long) (tick[0] * recording.getTickDuration() * 1_000_000_000L));
+
+        long[] eventHash = {0};
+        GameEngine engine = new GameEngine(new GameEvents() {
+            @Override
+            public void rabbitJumped(double x) {
+                eventHash[0] = mix(eventHash[0], 1);
+                sounds.requestSound("jump", x);
+            }
+
+            @Override
+            public void coinCollected(Coin coin) {
+                eventHash[0] = mix(eventHash[0], 2);
+                sounds.requestSound("coin_collect", coin.getX());
+            }
+
+            @Override
+            public void bushHit(ToxicBush bush) {
+                eventHash[0] = mix(eventHash[0], 3);
+                sounds.requestSound("hurt", bush.getX());
+            }
+
+            @Override
+            public void rabbitFell() {
+                eventHash[0] = mix(eventHash[0], 4);
+            }
+        });
+        recording.setupLevel(engine);
+
+        for (; tick[0] < recording.getTickCount(); tick[0]++) {
+            sounds.setListenerRange(engine.getCameraX(), engine.getCameraX() + GameEngine.VIEW_WIDTH);
+            engine.step(recording.getInput(tick[0]), recording.getTickDuration());
+            sounds.flushSounds();
+        }
+        sounds.dispose();
+
+        Rabbit rabbit = engine.getRabbit();
+        long hash = eventHash[0];
+        hash = mix(hash, Double.doubleToLongBits(rabbit.getX()));
+        hash = mix(hash, Double.doubleToLongBits(rabbit.getY()));
+        hash = mix(hash, Double.doubleToLongBits(engine.getCameraX()));
+        hash = mix(hash, engine.getCollectedCoins());
+        hash = mix(hash, engine.getTickCount());
+        for (String effect : audio.getPlayedEffects()) {
+            hash = mix(hash, effect.hashCode());
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, long value) {
+        return (hash ^ value) * 0x100000001B3L;
+    }
+}
@@ -0,0 +1,188 @@
+package com.rabbithop.engine;
+
+import com.rabbithop.entities.GameObject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Uniform grid over the level for entities that do not move (coins, bushes).
+ * Every entity is filed under each cell its bounds overlap; cells live in
+ * a hash table keyed by cell coordinates, so the level can be any size and
+ * empty space costs nothing. A query only visits the cells under the
+ * queried box, so its cost depends on the entities nearby, not on the
+ * total. Queries do not allocate once the result list has grown.
+ *
+ * @param <T> Entity type
+ */
+public class SpatialGrid<T extends GameObject> {
+
+    private final double cellSize;
+
+    // Entities by index; cells store indices into this list
+    private final List<T> objects = new ArrayList<>();
+
+    // Query stamp per entity, so entities in several cells are reported once
+    private int[] stamps = new int[16];
+    private int currentStamp = 0;
+
+    // Open addressing table: cell key -> list of entity indices
+    private long[] keys = new long[64];
+    private int[][] cells = new int[64][];
+    private int[] cellSizes = new int[64];
+    private int cellCount = 0;
+
+    /**
+     * @param cellSize Width and height of a cell, ideally a few entity sizes
+     */
+    public SpatialGrid(double cellSize) {
+        this.cellSize = cellSize;
+    }
+
+    /**
+     * Remove all entities
+     */
+    public void clear() {
+        objects.clear();
+        Arrays.fill(cells, null);
+        Arrays.fill(cellSizes, 0);
+        cellCount = 0;
+    }
+
+    /**
+     * Add an entity at its current bounds
+     * @param object The entity
+     */
+    public void insert(T object) {
+        int index = objects.size();
+        objects.add(object);
+        if (index == stamps.length) {
+            stamps = Arrays.copyOf(stamps, stamps.length * 2);
+        }
+        stamps[index] = currentStamp;
+
+        int minCellX = cell(object.getX());
+        int maxCellX = cell(object.getX() + object.getWidth());
+        int minCellY = cell(object.getY());
+        int maxCellY = cell(object.getY() + object.getHeight());
+        for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+            for (int cellY = minCellY; cellY <= maxCellY; cellY++) {
+                addToCell(key(cellX, cellY), index);
+            }
+        }
+    }
+
+    /**
+     * Find the entities whose cells overlap a box.
+     * Candidates can lie slightly outside the box; callers still do their
+     * exact overlap test.
+     * @param minX Left edge of the box
+     * @param minY Top edge of the box
+     * @param maxX Right edge of the box
+     * @param maxY Bottom edge of the box
+     * @param result List the entities are appended to
+     * @return Number of entities appended
+     */
+    public int query(double minX, double minY, double maxX, double maxY, List<T> result) {
+        int stamp = ++currentStamp;
+        int found = 0;
+
+        int minCellX = cell(minX);
+        int maxCellX = cell(maxX);
+        int minCellY = cell(minY);
+        int maxCellY = cell(maxY);
+        for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+            for (int cellY = minCellY; cellY <= maxCellY; cellY++) {
+                int slot = findSlot(key(cellX, cellY));
+                int[] cell = cells[slot];
+                if (cell == null) {
+                    continue;
+                }
+                for (int i = 0; i < cellSizes[slot]; i++) {
+                    int index = cell[i];
+                    if (stamps[index] != stamp) {
+                        stamps[index] = stamp;
+                        result.add(objects.get(index));
+                        found++;
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Get the number of entities in the grid
+     * @return Entity count
+     */
+    public int size() {
+        return objects.size();
+    }
+
+    /**
+     * Get the number of non-empty cells
+     * @return Cell count
+     */
+    public int getCellCount() {
+        return cellCount;
+    }
+
+    private int cell(double coordinate) {
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    private static long key(int cellX, int cellY) {
+        return ((long) cellX << 32) | (cellY & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Find the slot of a key, or the empty slot where it would go
+     */
+    private int findSlot(long key) {
+        int mask = keys.length - 1;
+        int slot = (int) (key * 0x9E3779B97F4A7C15L >>> 40) & mask;
+        while (cells[slot] != null && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void addToCell(long key, int index) {
+        int slot = findSlot(key);
+        int[] cell = cells[slot];
+        if (cell == null) {
+            // Keep the table at most half full
+            if ((cellCount + 1) * 2 > keys.length) {
+                grow();
+                slot = findSlot(key);
+            }
+            keys[slot] = key;
+            cell = new int[4];
+            cells[slot] = cell;
+            cellCount++;
+        } else if (cellSizes[slot] == cell.length) {
+            cell = Arrays.copyOf(cell, cell.length * 2);
+            cells[slot] = cell;
+        }
+        cell[cellSizes[slot]++] = index;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[][] oldCells = cells;
+        int[] oldSizes = cellSizes;
+
+        keys = new long[oldKeys.length * 2];
+        cells = new int[oldKeys.length * 2][];
+        cellSizes = new int[oldKeys.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldCells[i] != null) {
+                int slot = findSlot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                cells[slot] = oldCells[i];
+                cellSizes[slot] = oldSizes[i];
+            }
+        }
+    }
+}
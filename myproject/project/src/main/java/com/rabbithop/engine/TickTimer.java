@@ -0,0 +1,97 @@
+package com.rabbithop.engine;
+
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Per-phase timer for simulation ticks.
+ * Accumulates over the ticks between two drain() calls. While it is not
+ * enabled every call only checks a flag, so the engine can keep its
+ * timing calls in place at all times.
+ */
+public class TickTimer {
+
+    /**
+     * Parts of a tick (and of a frame, for HUD) that are timed separately
+     */
+    public enum Phase {
+        INPUT, PHYSICS, COLLISIONS, CAMERA, HUD
+    }
+
+    /**
+     * A timer that never runs
+     */
+    public static final TickTimer DISABLED = new TickTimer(() -> false);
+
+    private final BooleanSupplier enabled;
+    private final long[] phaseNanos = new long[Phase.values().length];
+    private long updateNanos;
+    private int ticks;
+    private boolean active;
+    private long tickStart;
+    private long lastLap;
+
+    /**
+     * @param enabled Checked at the start of every tick
+     */
+    public TickTimer(BooleanSupplier enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Start timing a tick
+     */
+    public void startTick() {
+        active = enabled.getAsBoolean();
+        if (active) {
+            tickStart = System.nanoTime();
+            lastLap = tickStart;
+        }
+    }
+
+    /**
+     * Attribute the time since the last lap to a phase
+     * @param phase The phase that just finished
+     */
+    public void lap(Phase phase) {
+        if (active) {
+            long now = System.nanoTime();
+            phaseNanos[phase.ordinal()] += now - lastLap;
+            lastLap = now;
+        }
+    }
+
+    /**
+     * Finish timing a tick
+     */
+    public void endTick() {
+        if (active) {
+            updateNanos += System.nanoTime() - tickStart;
+            ticks++;
+        }
+    }
+
+    /**
+     * Take the totals collected since the last call
+     * @return The timings, or null if nothing was timed
+     */
+    public Timings drain() {
+        if (ticks == 0) {
+            return null;
+        }
+        Timings timings = new Timings(ticks, updateNanos, phaseNanos.clone());
+        Arrays.fill(phaseNanos, 0);
+        updateNanos = 0;
+        ticks = 0;
+        return timings;
+    }
+
+    /**
+     * Tick timings handed from the simulation to the renderer
+     * @param ticks Number of ticks timed
+     * @param updateNanos Total update time of those ticks
+     * @param phaseNanos Total time per Phase ordinal
+     */
+    public record Timings(int ticks, long updateNanos, long[] phaseNanos) {
+    }
+}
@@ -1,7 +1,9 @@
 package com.rabbithop.entities;
 
-import javafx.scene.canvas.GraphicsContext;
-import javafx.scene.image.Image;
+import com.rabbithop.AnimationClock;
+import com.rabbithop.SpriteAtlas;
+import com.rabbithop.SpriteRegion;
+import com.rabbithop.SpriteVariants;
 
 /**
  * Collectible coins
@@ -13,49 +15,50 @@ public class Coin extends GameObject {
     // Animation
     private static final int FRAME_COUNT = 6; // Number of spinning animation frames
     private static final double FRAME_DURATION = 0.1; // Duration of each frame in seconds
-    private Image[] frames;
-    private int currentFrame = 0;
-    private double frameTimer = 0;
+    private SpriteRegion[] frames;
 
     public Coin(double x, double y) {
-        super(x, y, 32, 32, "/images/coin_0.png");
+        super(x, y, 32, 32, "coin_0");
+    }
+    
+    @Override
+    public void prepareSprite() {
+        super.prepareSprite();
         
-        // Load animation frames
-        frames = new Image[FRAME_COUNT];
-        try {
-            for (int i = 0; i < FRAME_COUNT; i++) {
-                frames[i] = new Image(getClass().getResourceAsStream("/images/coin_" + i + ".png"));
-            }
-        } catch (Exception e) {
-            System.out.println("Could not load coin animation frames: " + e.getMessage());
+        // Load animation frames (shared between all coins)
+        frames = new SpriteRegion[FRAME_COUNT];
+        for (int i = 0; i < FRAME_COUNT; i++) {
+            frames[i] = SpriteVariants.get(SpriteAtlas.get("coin_" + i), width, height, false);
         }
     }
 
     @Override
     public void update(double deltaTime) {
-        if (collected) {
-            return;
-        }
-        
-        // Animate the spinning coin
-        frameTimer += deltaTime;
-        if (frameTimer >= FRAME_DURATION) {
-            frameTimer = 0;
-            currentFrame = (currentFrame + 1) % FRAME_COUNT;
-        }
+        // The spin animation comes from the shared AnimationClock
     }
     
     @Override
-    public void render(GraphicsContext gc) {
+    public SpriteRegion getCurrentSprite() {
         if (collected) {
-            return;
+            return null;
+        }
+        if (frames == null) {
+            prepareSprite();
         }
         
+        int currentFrame = getAnimationFrame();
         if (frames != null && frames[currentFrame] != null) {
-            gc.drawImage(frames[currentFrame], x, y, width, height);
-        } else {
-            super.render(gc);
+            return frames[currentFrame];
         }
+        return super.getCurrentSprite();
+    }
+    
+    /**
+     * Get the spin frame shown by all coins at the current time
+     * @return Frame index
+     */
+    public static int getAnimationFrame() {
+        return AnimationClock.frame(FRAME_COUNT, FRAME_DURATION);
     }
     
     /**
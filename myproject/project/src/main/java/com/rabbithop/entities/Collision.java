@@ -0,0 +1,65 @@
+package com.rabbithop.entities;
+
+/**
+ * Overlap tests on plain coordinates.
+ * They run for every nearby entity on every tick, so they work on doubles
+ * and never create objects. Boxes are given as position and size, like
+ * GameObject; edges that only touch do not count as overlapping (the same
+ * rule as Rectangle2D.intersects).
+ */
+public final class Collision {
+
+    private Collision() {
+    }
+
+    /**
+     * Check if two boxes overlap
+     * @param ax Left of the first box
+     * @param ay Top of the first box
+     * @param aWidth Width of the first box
+     * @param aHeight Height of the first box
+     * @param bx Left of the second box
+     * @param by Top of the second box
+     * @param bWidth Width of the second box
+     * @param bHeight Height of the second box
+     * @return true if the boxes overlap
+     */
+    public static boolean overlaps(double ax, double ay, double aWidth, double aHeight,
+                                   double bx, double by, double bWidth, double bHeight) {
+        return ax < bx + bWidth && ax + aWidth > bx
+                && ay < by + bHeight && ay + aHeight > by;
+    }
+
+    /**
+     * Check if two objects overlap
+     * @param a First object
+     * @param b Second object
+     * @return true if their bounds overlap
+     */
+    public static boolean overlaps(GameObject a, GameObject b) {
+        return overlaps(a.x, a.y, a.width, a.height, b.x, b.y, b.width, b.height);
+    }
+
+    /**
+     * Check if two intervals on one axis overlap
+     * @param aMin Start of the first interval
+     * @param aMax End of the first interval
+     * @param bMin Start of the second interval
+     * @param bMax End of the second interval
+     * @return true if the intervals overlap
+     */
+    public static boolean spansOverlap(double aMin, double aMax, double bMin, double bMax) {
+        return aMin < bMax && aMax > bMin;
+    }
+
+    /**
+     * Check if a value lies in a closed range
+     * @param value The value
+     * @param min Lower bound (inclusive)
+     * @param max Upper bound (inclusive)
+     * @return true if min <= value <= max
+     */
+    public static boolean within(double value, double min, double max) {
+        return value >= min && value <= max;
+    }
+}
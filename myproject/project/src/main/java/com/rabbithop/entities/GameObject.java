@@ -1,30 +1,53 @@
 package com.rabbithop.entities;
 
+import com.rabbithop.SpriteAtlas;
+import com.rabbithop.SpriteRegion;
+import com.rabbithop.SpriteRenderer;
+import com.rabbithop.SpriteVariants;
+
 import javafx.geometry.Rectangle2D;
-import javafx.scene.canvas.GraphicsContext;
-import javafx.scene.image.Image;
+
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Base class for all game objects (entities)
  */
 public abstract class GameObject {
+    private static final AtomicInteger nextId = new AtomicInteger();
+    
+    // Identifies the object to renderers that keep state per entity
+    private final int id = nextId.getAndIncrement();
+    
     protected double x;
     protected double y;
     protected double width;
     protected double height;
-    protected Image sprite;
     
-    public GameObject(double x, double y, double width, double height, String spritePath) {
+    // Position at the previous simulation tick, for render interpolation
+    protected double prevX;
+    protected double prevY;
+    
+    // Sprites are looked up on first use, so headless simulations never load images
+    protected final String spriteName;
+    protected SpriteRegion sprite;
+    private SpriteRegion sizedSprite; // sprite pre-scaled to width x height
+    
+    /**
+     * Create a game object
+     * @param x X position
+     * @param y Y position
+     * @param width Width of the object
+     * @param height Height of the object
+     * @param spriteName Name of the sprite in the atlas (image name without ".png")
+     */
+    public GameObject(double x, double y, double width, double height, String spriteName) {
         this.x = x;
         this.y = y;
         this.width = width;
         this.height = height;
-        
-        try {
-            this.sprite = new Image(getClass().getResourceAsStream(spritePath));
-        } catch (Exception e) {
-            System.out.println("Could not load sprite: " + spritePath + " - " + e.getMessage());
-        }
+        this.prevX = x;
+        this.prevY = y;
+        this.spriteName = spriteName;
     }
     
     /**
@@ -34,17 +57,85 @@ public abstract class GameObject {
     public abstract void update(double deltaTime);
     
     /**
-     * Render the object
-     * @param gc Graphics context to draw on
+     * Describe the object at its current position
+     * @param renderer Backend that draws it
      */
-    public void render(GraphicsContext gc) {
-        if (sprite != null) {
-            gc.drawImage(sprite, x, y, width, height);
+    public void render(SpriteRenderer renderer) {
+        render(renderer, 1.0);
+    }
+    
+    /**
+     * Describe the object between its previous and current tick position
+     * @param renderer Backend that draws it
+     * @param alpha Interpolation factor (0 = previous tick, 1 = current tick)
+     */
+    public void render(SpriteRenderer renderer, double alpha) {
+        SpriteRegion region = getCurrentSprite();
+        if (region != null) {
+            renderer.drawSprite(id, region, getRenderX(alpha), getRenderY(alpha), width, height, isMirrored());
+        }
+    }
+    
+    /**
+     * Get the sprite to draw for the current state
+     * @return The sprite at the object's size, or null if nothing should be drawn
+     */
+    public SpriteRegion getCurrentSprite() {
+        if (sizedSprite == null) {
+            prepareSprite();
         }
+        return sizedSprite;
     }
     
     /**
-     * Get the collision boundary
+     * Whether the current sprite should be drawn mirrored (facing left)
+     * @return true to mirror
+     */
+    public boolean isMirrored() {
+        return false;
+    }
+    
+    /**
+     * Remember the current position as the previous tick position.
+     * Called before every simulation tick.
+     */
+    public void savePreviousPosition() {
+        prevX = x;
+        prevY = y;
+    }
+    
+    /**
+     * Get the interpolated X position for rendering
+     * @param alpha Interpolation factor
+     * @return X between the previous and current tick
+     */
+    public double getRenderX(double alpha) {
+        return prevX + (x - prevX) * alpha;
+    }
+    
+    /**
+     * Get the interpolated Y position for rendering
+     * @param alpha Interpolation factor
+     * @return Y between the previous and current tick
+     */
+    public double getRenderY(double alpha) {
+        return prevY + (y - prevY) * alpha;
+    }
+    
+    /**
+     * Look up and pre-scale the sprite now instead of on the first render
+     */
+    public void prepareSprite() {
+        if (sprite == null) {
+            // Region of the shared sprite atlas
+            sprite = SpriteAtlas.get(spriteName);
+        }
+        sizedSprite = SpriteVariants.get(sprite, width, height, false);
+    }
+    
+    /**
+     * Get the collision boundary.
+     * Creates a new object on every call; collision checks use intersects().
      * @return Rectangle2D representing the collision boundary
      */
     public Rectangle2D getBoundary() {
@@ -57,10 +148,14 @@ public abstract class GameObject {
      * @return true if they intersect
      */
     public boolean intersects(GameObject other) {
-        return other.getBoundary().intersects(this.getBoundary());
+        return Collision.overlaps(this, other);
     }
     
     // Getters and setters
+    public int getId() {
+        return id;
+    }
+    
     public double getX() {
         return x;
     }
@@ -84,4 +179,12 @@ public abstract class GameObject {
     public double getHeight() {
         return height;
     }
+    
+    public double getPrevX() {
+        return prevX;
+    }
+    
+    public double getPrevY() {
+        return prevY;
+    }
 }
\ No newline at end of file
@@ -17,7 +17,7 @@ public class Platform extends GameObject {
      */
     public Platform(double x, double y, double width, double height, boolean isGround) {
         super(x, y, width, height, isGround ? 
-              "/images/ground.png" : "/images/platform.png");
+              "ground" : "platform");
         this.isGround = isGround;
     }
 
@@ -1,9 +1,9 @@
 package com.rabbithop.entities;
 
-import com.rabbithop.GameManager;
-
-import javafx.scene.canvas.GraphicsContext;
-import javafx.scene.image.Image;
+import com.rabbithop.AnimationClock;
+import com.rabbithop.SpriteAtlas;
+import com.rabbithop.SpriteRegion;
+import com.rabbithop.SpriteVariants;
 
 /**
  * The player character (rabbit)
@@ -20,42 +20,60 @@ public class Rabbit extends GameObject {
     private boolean isOnGround = true;
     private boolean facingRight = true;
     
+    // Position before the last move, for swept (continuous) landing checks
+    private double moveStartX;
+    private double moveStartY;
+    
     // Animation
     private static final int FRAME_COUNT = 4; // Number of animation frames
     private static final double FRAME_DURATION = 0.1; // Duration of each frame in seconds
-    private Image[] runFrames;
-    private Image jumpFrame;
-    private Image idleFrame;
-    private int currentFrame = 0;
-    private double frameTimer = 0;
+    private SpriteRegion[] runFrames;
+    private SpriteRegion jumpFrame;
+    private SpriteRegion idleFrame;
+    
+    // Mirrored copies used when facing left
+    private SpriteRegion[] runFramesLeft;
+    private SpriteRegion jumpFrameLeft;
+    private SpriteRegion idleFrameLeft;
     
     // Physics constants
-    private static final double GRAVITY = 0.5;
+    private static final double GRAVITY = 30; // pixels per second squared
+    private static final double LANDING_TOLERANCE = 15; // pixels below the platform top
     
    
-public Rabbit(double x, double y, double speed, double jumpHeight, GameManager gameManager) {
-    super(x, y, 64, 64, "/images/rabbit_idle.png");
+public Rabbit(double x, double y, double speed, double jumpHeight) {
+    super(x, y, 64, 64, "rabbit_idle");
     this.speed = speed;
     this.jumpHeight = jumpHeight;
-    this.gameManager = gameManager;
-    
-    // Add debug code to verify sprite loading
-    System.out.println("Attempting to load rabbit sprite...");
+    this.moveStartX = x;
+    this.moveStartY = y;
+}
+
+@Override
+public void prepareSprite() {
+    super.prepareSprite();
     
     // Load animation frames
-    runFrames = new Image[FRAME_COUNT];
-    try {
-        for (int i = 0; i < FRAME_COUNT; i++) {
-            runFrames[i] = new Image(getClass().getResourceAsStream("/images/rabbit_run_" + i + ".png"));
-            //System.out.println("Loaded rabbit_run_" + i + ".png");
-        }
-        jumpFrame = new Image(getClass().getResourceAsStream("/images/rabbit_jump.png"));
-        idleFrame = new Image(getClass().getResourceAsStream("/images/rabbit_idle.png"));
-        //System.out.println("All rabbit sprites loaded successfully");
-    } catch (Exception e) {
-        System.out.println("Could not load rabbit animation frames: " + e.getMessage());
-        e.printStackTrace();
+    runFrames = new SpriteRegion[FRAME_COUNT];
+    runFramesLeft = new SpriteRegion[FRAME_COUNT];
+    for (int i = 0; i < FRAME_COUNT; i++) {
+        runFrames[i] = loadFrame("rabbit_run_" + i, false);
+        runFramesLeft[i] = loadFrame("rabbit_run_" + i, true);
     }
+    jumpFrame = loadFrame("rabbit_jump", false);
+    jumpFrameLeft = loadFrame("rabbit_jump", true);
+    idleFrame = loadFrame("rabbit_idle", false);
+    idleFrameLeft = loadFrame("rabbit_idle", true);
+}
+
+    /**
+     * Get an animation frame at the rabbit's size
+     * @param name Sprite name
+     * @param flipped Whether to get the left-facing copy
+     * @return The frame sprite
+     */
+    private SpriteRegion loadFrame(String name, boolean flipped) {
+        return SpriteVariants.get(SpriteAtlas.get(name), width, height, flipped);
 }
     
     @Override
@@ -63,18 +81,17 @@ public Rabbit(double x, double y, double speed, double jumpHeight, GameManager g
         // Apply gravity
         
         if (!isOnGround) {
-            velocityY += GRAVITY;
+            velocityY += GRAVITY * deltaTime;
         }
         
         // Update position based on velocity
+        moveStartX = x;
+        moveStartY = y;
         x += velocityX * deltaTime;
         y += velocityY * deltaTime;
 
         isOnGround = false;
         
-        // Update animation
-        updateAnimation(deltaTime);
-        
         // Check if falling
         if (velocityY > 0) {
             isFalling = true;
@@ -84,47 +101,41 @@ public Rabbit(double x, double y, double speed, double jumpHeight, GameManager g
     }
     
     @Override
-public void render(GraphicsContext gc) {
-    // Try to render the proper sprite first
-    Image currentSprite;
-    
-    if (isJumping || isFalling) {
-        currentSprite = jumpFrame;
-    } else if (Math.abs(velocityX) > 0.1) {
-        currentSprite = runFrames[currentFrame];
-    } else {
-        currentSprite = idleFrame;
-    }
-    
-    // Print position for debugging
-    //System.out.println("Rabbit position: " + x + ", " + y);
-    
-    // Try to draw the sprite on top
-    if (currentSprite != null) {
-        if (facingRight) {
-            gc.drawImage(currentSprite, x, y, width, height);
-        } else {
-            gc.drawImage(currentSprite, x + width, y, -width, height);
+    public SpriteRegion getCurrentSprite() {
+        if (runFrames == null) {
+            prepareSprite();
         }
-    } else {
-        System.out.println("Warning: Rabbit sprite is null");
+        if (isJumping || isFalling) {
+            return facingRight ? jumpFrame : jumpFrameLeft;
+        } else if (Math.abs(velocityX) > 0.1) {
+            // Run cycle frame from the shared AnimationClock
+            int currentFrame = AnimationClock.frame(FRAME_COUNT, FRAME_DURATION);
+            return facingRight ? runFrames[currentFrame] : runFramesLeft[currentFrame];
+        }
+        return facingRight ? idleFrame : idleFrameLeft;
     }
-}
-    
     
     /**
-     * Update animation frames
-     * @param deltaTime Time since last update
+     * Identify the sprite getCurrentSprite returns, without loading any
+     * sprites (headless runs never do)
+     * @return Run frame, FRAME_COUNT when in the air or FRAME_COUNT + 1 when
+     *         standing, offset by FRAME_COUNT + 2 when facing left
      */
-    private void updateAnimation(double deltaTime) {
-        if (Math.abs(velocityX) > 0.1) {
-            // Only animate when moving
-            frameTimer += deltaTime;
-            if (frameTimer >= FRAME_DURATION) {
-                frameTimer = 0;
-                currentFrame = (currentFrame + 1) % FRAME_COUNT;
-            }
+    public int getPose() {
+        int pose;
+        if (isJumping || isFalling) {
+            pose = FRAME_COUNT;
+        } else if (Math.abs(velocityX) > 0.1) {
+            pose = AnimationClock.frame(FRAME_COUNT, FRAME_DURATION);
+        } else {
+            pose = FRAME_COUNT + 1;
         }
+        return facingRight ? pose : pose + FRAME_COUNT + 2;
+    }
+    
+    @Override
+    public boolean isMirrored() {
+        return !facingRight;
     }
     
     /**
@@ -152,20 +163,16 @@ public void render(GraphicsContext gc) {
     
     /**
      * Make the rabbit jump
+     * @return true if the rabbit took off (it can only jump from the ground)
      */
-    public void jump() {
+    public boolean jump() {
         if (isOnGround) {
             velocityY = -jumpHeight;
             isJumping = true;
             isOnGround = false;
-            
-            try {
-                gameManager.getSoundManager().playSound("jump");
-            } catch (Exception e) {
-                // Just jump without sound if there's an error
-                System.out.println("Could not play jump sound: " + e.getMessage());
-            }
+            return true;
         }
+        return false;
     }
     
     /**
@@ -176,29 +183,67 @@ public void render(GraphicsContext gc) {
         y = platformY - height;
         velocityY = 0;
         isJumping = false;
+        isFalling = false;
         isOnGround = true;
     }
     
     /**
-     * Check if rabbit should land on platform
+     * Find when the rabbit's feet hit a platform top during the last move.
+     * The move is treated as a straight line from where update() started,
+     * so this works at any speed: a rabbit cannot fall through a platform
+     * by skipping past it in one step. As with shouldLandOn, feet that
+     * start up to LANDING_TOLERANCE below the top still land on it.
      * @param platform The platform to check
-     * @return true if should land
+     * @return Time of impact from 0 (start of the move) to 1 (end), or -1 if no landing
      */
-    public boolean shouldLandOn(Platform platform) {
-        double rabbitBottom = y + height;
+    public double landingTime(Platform platform) {
+        // Only a falling rabbit can land
+        if (velocityY <= 0) {
+            return -1;
+        }
+        
+        // The feet must reach the top, and not start too far below it
         double platformTop = platform.getY();
+        double startBottom = moveStartY + height;
+        double endBottom = y + height;
+        if (endBottom < platformTop || startBottom > platformTop + LANDING_TOLERANCE) {
+            return -1;
+        }
         
-        // Check if rabbit is falling
-        boolean isFalling = velocityY > 0;
+        double timeOfImpact = endBottom > startBottom
+                ? Math.max(0, (platformTop - startBottom) / (endBottom - startBottom))
+                : 0;
         
-        // Check if rabbit's bottom is at or just past the platform top
-        boolean isAtPlatformLevel = rabbitBottom >= platformTop && rabbitBottom <= platformTop + 15;
+        // The middle of the rabbit must be over the platform at that moment
+        double impactX = moveStartX + (x - moveStartX) * timeOfImpact;
+        if (!Collision.spansOverlap(impactX + width * 0.3, impactX + width * 0.7,
+                platform.getX(), platform.getX() + platform.getWidth())) {
+            return -1;
+        }
+        return timeOfImpact;
+    }
+    
+    /**
+     * Check if rabbit should land on platform, looking only at the current
+     * position (a fast rabbit can skip the landing window; see landingTime)
+     * @param platform The platform to check
+     * @return true if should land
+     */
+    public boolean shouldLandOn(Platform platform) {
+        // Only a falling rabbit can land
+        if (velocityY <= 0) {
+            return false;
+        }
         
-        // Check if rabbit is horizontally within the platform
-        boolean isOverPlatform = x + width * 0.3 < platform.getX() + platform.getWidth() &&
-                                x + width * 0.7 > platform.getX();
+        // Check if rabbit's bottom is at or just past the platform top
+        double platformTop = platform.getY();
+        if (!Collision.within(y + height, platformTop, platformTop + LANDING_TOLERANCE)) {
+            return false;
+        }
         
-        return isFalling && isAtPlatformLevel && isOverPlatform;
+        // Check if the middle of the rabbit is horizontally within the platform
+        return Collision.spansOverlap(x + width * 0.3, x + width * 0.7,
+                platform.getX(), platform.getX() + platform.getWidth());
     }
     
     /**
@@ -209,6 +254,46 @@ public void render(GraphicsContext gc) {
         this.speed = speed;
     }
     
+    /**
+     * Get the X position at the start of the last move
+     * @return X position before the last update()
+     */
+    public double getMoveStartX() {
+        return moveStartX;
+    }
+    
+    /**
+     * Get the horizontal velocity
+     * @return Velocity in pixels per second
+     */
+    public double getVelocityX() {
+        return velocityX;
+    }
+    
+    /**
+     * Get the vertical velocity (positive is down)
+     * @return Velocity in pixels per second
+     */
+    public double getVelocityY() {
+        return velocityY;
+    }
+    
+    /**
+     * Get the rabbit's speed
+     * @return Speed in pixels per second
+     */
+    public double getSpeed() {
+        return speed;
+    }
+    
+    /**
+     * Get the rabbit's jump height
+     * @return Jump velocity
+     */
+    public double getJumpHeight() {
+        return jumpHeight;
+    }
+    
     /**
      * Set the rabbit's jump height
      * @param jumpHeight New jump height value
@@ -225,14 +310,14 @@ public void render(GraphicsContext gc) {
     public void reset(double x, double y) {
         this.x = x;
         this.y = y;
+        this.prevX = x; // no interpolation across the jump
+        this.prevY = y;
+        this.moveStartX = x;
+        this.moveStartY = y;
         this.velocityX = 0;
         this.velocityY = 0;
         this.isJumping = false;
         this.isFalling = false;
         this.isOnGround = true;
     }
-
-    
-    private GameManager gameManager;
-
 }
\ No newline at end of file
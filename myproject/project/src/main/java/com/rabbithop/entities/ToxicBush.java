@@ -13,7 +13,7 @@ public class ToxicBush extends GameObject {
     private static final double HIT_COOLDOWN_DURATION = 3.0; // seconds
 
     public ToxicBush(double x, double y) {
-        super(x, y, 48, 48, "/images/toxic_bush.png");
+        super(x, y, 48, 48, "toxic_bush");
     }
 
     @Override
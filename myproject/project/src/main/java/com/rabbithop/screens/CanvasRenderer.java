@@ -0,0 +1,27 @@
+package com.rabbithop.screens;
+
+import com.rabbithop.SpriteRegion;
+import com.rabbithop.SpriteRenderer;
+
+import javafx.scene.canvas.GraphicsContext;
+
+/**
+ * Immediate-mode backend: every sprite is a drawImage on a canvas
+ */
+public class CanvasRenderer implements SpriteRenderer {
+
+    private final GraphicsContext gc;
+
+    /**
+     * @param gc Graphics context to draw on (translated by the camera by the caller)
+     */
+    public CanvasRenderer(GraphicsContext gc) {
+        this.gc = gc;
+    }
+
+    @Override
+    public void drawSprite(int entityId, SpriteRegion sprite, double x, double y,
+                           double width, double height, boolean mirrored) {
+        sprite.drawSprite(gc, x, y, width, height, mirrored);
+    }
+}
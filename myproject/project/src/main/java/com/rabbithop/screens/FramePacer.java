@@ -0,0 +1,117 @@
+package com.rabbithop.screens;
+
+import javafx.stage.Stage;
+import javafx.stage.Window;
+
+/**
+ * Decides which animation pulses of the game screen are actually drawn.
+ * Frames are skipped when the window is hidden or minimized, when the
+ * picture would be identical to the last one, above the FPS cap, and above
+ * a lower background rate while the window is not focused (which includes
+ * the time a modal Alert is up). Only rendering is paced; the simulation
+ * keeps its own fixed tick rate.
+ *
+ * Configured with -Drabbithop.fpsCap (default 0 = one frame per pulse)
+ * and -Drabbithop.backgroundFps (default 10).
+ */
+public class FramePacer {
+
+    // Pulses arrive with some jitter, so allow frames slightly early
+    private static final long TOLERANCE_NANOS = 1_000_000;
+
+    private final double fpsCap;
+    private final double backgroundFps;
+    private long lastFrameTime = 0;
+
+    // Pulses seen and what happened to them
+    private long renderedFrames;
+    private long skippedByCap;
+    private long skippedInBackground;
+    private long skippedHidden;
+    private long skippedUnchanged;
+
+    public FramePacer() {
+        this(Double.parseDouble(System.getProperty("rabbithop.fpsCap", "0")),
+                Double.parseDouble(System.getProperty("rabbithop.backgroundFps", "10")));
+    }
+
+    /**
+     * @param fpsCap Maximum frames per second while focused, 0 for no cap
+     * @param backgroundFps Maximum frames per second while not focused, 0 to stop drawing
+     */
+    public FramePacer(double fpsCap, double backgroundFps) {
+        this.fpsCap = fpsCap;
+        this.backgroundFps = backgroundFps;
+    }
+
+    /**
+     * Decide whether to draw on this pulse
+     * @param now Pulse time in nanoseconds
+     * @param window Window showing the game, or null
+     * @param unchanged Whether the frame would look exactly like the last one
+     * @return true to draw the frame
+     */
+    public boolean shouldRender(long now, Window window, boolean unchanged) {
+        if (window != null && (!window.isShowing()
+                || window instanceof Stage stage && stage.isIconified())) {
+            skippedHidden++;
+            return false;
+        }
+
+        if (unchanged) {
+            skippedUnchanged++;
+            return false;
+        }
+
+        boolean focused = window == null || window.isFocused();
+        double limit = focused ? fpsCap : backgroundFps;
+        if (!focused && limit <= 0) {
+            skippedInBackground++;
+            return false;
+        }
+        if (limit > 0 && lastFrameTime != 0 && now - lastFrameTime < 1_000_000_000L / limit - TOLERANCE_NANOS) {
+            if (focused) {
+                skippedByCap++;
+            } else {
+                skippedInBackground++;
+            }
+            return false;
+        }
+
+        lastFrameTime = now;
+        renderedFrames++;
+        return true;
+    }
+
+    /**
+     * Forget the last frame time, e.g. when the render loop restarts
+     */
+    public void reset() {
+        lastFrameTime = 0;
+    }
+
+    /**
+     * Get the number of frames drawn
+     * @return Rendered frame count
+     */
+    public long getRenderedFrames() {
+        return renderedFrames;
+    }
+
+    /**
+     * Get the number of pulses not drawn, for any reason
+     * @return Skipped frame count
+     */
+    public long getSkippedFrames() {
+        return skippedByCap + skippedInBackground + skippedHidden + skippedUnchanged;
+    }
+
+    /**
+     * Get the skipped frames by reason
+     * @return Summary text
+     */
+    public String getStats() {
+        return String.format("skipped %d (cap %d, background %d, hidden %d, unchanged %d)",
+                getSkippedFrames(), skippedByCap, skippedInBackground, skippedHidden, skippedUnchanged);
+    }
+}
@@ -0,0 +1,135 @@
+package com.rabbithop.screens;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Level, coins and health display of the game screen.
+ * It is driven by GameManager state changes rather than by frames: a value
+ * that did not change does not touch its Text node, so the scene graph is
+ * only marked dirty (CSS and layout) when something is actually different.
+ *
+ * With -Drabbithop.canvasHud=true the values are drawn onto the game
+ * canvas from cached GlyphStrips instead, and the Text nodes stay hidden.
+ */
+public class GameHud {
+
+    private static final boolean CANVAS_MODE = Boolean.getBoolean("rabbithop.canvasHud");
+    private static final String GLYPHS = "0123456789-:CHLacehilnostv";
+    private static final double SPACING = 20;
+
+    private final Font font;
+    private final Text levelText = new Text("Level: 1");
+    private final Text coinsText = new Text("coin: 0");
+    private final Text healthText = new Text("HP: 15");
+
+    // Last shown values; -1 (or null) until the first update
+    private int level = -1;
+    private int coins = -1;
+    private int health = -1;
+    private Color healthColor;
+
+    // Canvas mode: the strings are rebuilt on change, the glyphs never
+    private String levelLabel = "";
+    private String coinsLabel = "";
+    private String healthLabel = "";
+    private GlyphStrip whiteGlyphs;
+    private GlyphStrip goldGlyphs;
+    private GlyphStrip healthGlyphs;
+    private final Map<Color, GlyphStrip> healthStrips = new HashMap<>();
+
+    /**
+     * @param font Font of the HUD text
+     */
+    public GameHud(Font font) {
+        this.font = font;
+        levelText.setFont(font);
+        coinsText.setFont(font);
+        healthText.setFont(font);
+        levelText.setFill(Color.WHITE);
+        coinsText.setFill(Color.GOLD);
+        healthText.setFill(Color.LIGHTGREEN);
+    }
+
+    /**
+     * Get the Text nodes to put in the HUD bar (none in canvas mode)
+     * @return The nodes
+     */
+    public List<Text> getNodes() {
+        return CANVAS_MODE ? List.of() : List.of(levelText, coinsText, healthText);
+    }
+
+    /**
+     * Show new values; only what differs from the last values is updated
+     * @param level Current level
+     * @param coins Coins owned
+     * @param health Rabbit health
+     */
+    public void update(int level, int coins, int health) {
+        if (level != this.level) {
+            this.level = level;
+            levelLabel = "Level: " + level;
+            if (!CANVAS_MODE) {
+                levelText.setText(levelLabel);
+            }
+        }
+        if (coins != this.coins) {
+            this.coins = coins;
+            coinsLabel = "Coins: " + coins;
+            if (!CANVAS_MODE) {
+                coinsText.setText(coinsLabel);
+            }
+        }
+        if (health != this.health) {
+            this.health = health;
+            healthLabel = "Health: " + health;
+            if (!CANVAS_MODE) {
+                healthText.setText(healthLabel);
+            }
+
+            // Color by health value
+            Color color = health <= 3 ? Color.RED : health <= 5 ? Color.ORANGE : Color.LIGHTGREEN;
+            if (color != healthColor) {
+                healthColor = color;
+                if (CANVAS_MODE) {
+                    healthGlyphs = null;
+                } else {
+                    healthText.setFill(color);
+                }
+            }
+        }
+    }
+
+    /**
+     * Draw the HUD onto the canvas, in canvas mode only
+     * @param gc Graphics context of the game canvas
+     * @param right Right edge of the HUD
+     * @param y Top edge of the HUD
+     * @return Number of draw calls issued (about one per character)
+     */
+    public int render(GraphicsContext gc, double right, double y) {
+        if (!CANVAS_MODE || healthColor == null) {
+            return 0;
+        }
+        if (whiteGlyphs == null) {
+            whiteGlyphs = new GlyphStrip(GLYPHS, font, Color.WHITE);
+            goldGlyphs = new GlyphStrip(GLYPHS, font, Color.GOLD);
+        }
+        if (healthGlyphs == null) {
+            healthGlyphs = healthStrips.computeIfAbsent(healthColor, color -> new GlyphStrip(GLYPHS, font, color));
+        }
+
+        double x = right - whiteGlyphs.getWidth(levelLabel) - goldGlyphs.getWidth(coinsLabel)
+                - healthGlyphs.getWidth(healthLabel) - 2 * SPACING;
+        x += whiteGlyphs.drawText(gc, levelLabel, x, y) + SPACING;
+        x += goldGlyphs.drawText(gc, coinsLabel, x, y) + SPACING;
+        healthGlyphs.drawText(gc, healthLabel, x, y);
+        return levelLabel.length() + coinsLabel.length() + healthLabel.length();
+    }
+}
@@ -1,6 +1,7 @@
 package com.rabbithop.screens;
 
 import com.rabbithop.GameManager;
+import com.rabbithop.ImageCache;
 
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
@@ -65,7 +66,7 @@ public class GameOverScreen extends Screen {
         // Try to load sad rabbit image
         ImageView sadRabbitView = new ImageView();
         try {
-            Image sadRabbitImage = new Image(getClass().getResourceAsStream("/images/sad_rabbit.png"));
+            Image sadRabbitImage = ImageCache.get("/images/sad_rabbit.png");
             sadRabbitView.setImage(sadRabbitImage);
             sadRabbitView.setFitWidth(200);
             sadRabbitView.setFitHeight(200);
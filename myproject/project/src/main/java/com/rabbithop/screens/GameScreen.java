@@ -1,7 +1,16 @@
 package com.rabbithop.screens;
  
+import com.rabbithop.FrameProfiler;
 import com.rabbithop.GameManager;
-import com.rabbithop.entities.*;
+import com.rabbithop.ImageCache;
+import com.rabbithop.SoundManager;
+import com.rabbithop.SpriteVariants;
+import com.rabbithop.engine.GameEngine;
+import com.rabbithop.engine.GameEvents;
+import com.rabbithop.engine.InputRecording;
+import com.rabbithop.engine.TickTimer;
+import com.rabbithop.entities.Coin;
+import com.rabbithop.entities.ToxicBush;
  
 import javafx.animation.AnimationTimer;
 import javafx.scene.Scene;
@@ -10,50 +19,116 @@ import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.input.KeyCode;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.HBox;
+import javafx.scene.layout.StackPane;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 import javafx.scene.text.Text;
  
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
 import javafx.scene.control.Alert;
  
 /**
- * The main gameplay screen
+ * The main gameplay screen.
+ * The game itself is a GameEngine stepped on a simulation thread; this
+ * screen feeds it keyboard input, turns its events into sounds and
+ * GameManager updates, and draws the snapshots it publishes.
  */
 public class GameScreen extends Screen {
  
-    private static final int WIDTH = 1024;
-    private static final int HEIGHT = 768;
-    private static final int GROUND_HEIGHT = 100;
-    private static final int TOTAL_COINS_PER_LEVEL = 12;
-    private static final int TOTAL_BUSHES_PER_LEVEL = 8;
+    private static final int WIDTH = GameEngine.VIEW_WIDTH;
+    private static final int HEIGHT = GameEngine.VIEW_HEIGHT;
  
     private Canvas canvas;
     private GraphicsContext gc;
+ 
+    // Canvas HUD and profiler, stacked above the sprites of every backend
+    private Canvas overlay;
+    private GraphicsContext overlayGc;
+    private boolean overlayDrawn = false;
     private AnimationTimer gameLoop;
  
-    private Rabbit rabbit;
-    private List<Platform> platforms;
-    private List<Coin> coins;
-    private List<ToxicBush> toxicBushes;
+    // World state and update step; owned by the simulation thread while it runs
+    private GameEngine engine;
  
     private long lastUpdateTime;
-    private Set<KeyCode> pressedKeys = new HashSet<>();
-    private Random random = new Random();
  
-    // Camera system for side-scrolling
-    private double cameraX = 0;
-    private static final double LEVEL_WIDTH = 3000;
+    // Fixed simulation timestep (-Drabbithop.tickRate, ticks per second)
+    private static final double TICK_RATE = Double.parseDouble(System.getProperty("rabbithop.tickRate", "60"));
+    private static final double TICK_DURATION = 1.0 / TICK_RATE;
+    private static final long TICK_NANOS = (long) (1_000_000_000L / TICK_RATE);
+    private static final int MAX_CATCH_UP_STEPS = 5;
+ 
+    // The simulation runs on its own thread and publishes a WorldSnapshot
+    // after each batch of ticks; the AnimationTimer only draws snapshots
+    private Thread simulationThread;
+    private volatile boolean simulationRunning = false;
+    private final AtomicReference<WorldSnapshot> latestSnapshot = new AtomicReference<>();
+ 
+    // Coins and bushes near the view, gathered for each snapshot
+    private static final double SNAPSHOT_MARGIN = 128;
+    private final List<Coin> visibleCoins = new ArrayList<>();
+    private final List<ToxicBush> visibleBushes = new ArrayList<>();
+ 
+    // Held keys as GameEngine.INPUT_* bits, written on the FX thread and read by the simulation
+    private volatile int inputBits = 0;
+    private Set<KeyCode> pressedKeys = new HashSet<>();
  
-    // HUD elements
-    private Text coinsText;
-    private Text healthText;
-    private Text levelText;
+    // Level seeds (-Drabbithop.seed fixes the seed of the first level),
+    // input recording (-Drabbithop.record=<directory>) and playback
+    // (-Drabbithop.replay=<file>, replaces the keyboard on the recorded level)
+    private static final String RECORD_DIRECTORY = System.getProperty("rabbithop.record");
+    private static final String REPLAY_FILE = System.getProperty("rabbithop.replay");
+    private final Random seedSource = Long.getLong("rabbithop.seed") != null
+            ? new Random(Long.getLong("rabbithop.seed")) : new Random();
+    private InputRecording recording;
+    private InputRecording replay;
+    private int replayTick;
+ 
+    // Render benchmark (-Drabbithop.benchmark=true), compare runs with
+    // -Drabbithop.spriteVariants=true/false and -Drabbithop.staticCache=true/false
+    private static final boolean BENCHMARK = Boolean.getBoolean("rabbithop.benchmark");
+    private static final int BENCHMARK_FRAMES = 600;
+    private long benchmarkRenderNanos = 0;
+    private double benchmarkFrameSeconds = 0;
+    private int benchmarkFrames = 0;
+ 
+    // Sky, hills and clouds, pre-rendered into wrap-around tiles
+    private final ParallaxBackground background = new ParallaxBackground(WIDTH, HEIGHT);
+ 
+    // Platforms and ground, pre-rendered in chunks at level setup
+    private final StaticLayerCache staticLayer = new StaticLayerCache();
+ 
+    // Skips frames that would not be seen or would not change
+    private final FramePacer framePacer = new FramePacer();
+    private WorldSnapshot lastRenderedSnapshot;
+    private double lastRenderedAlpha;
+    private long lastRenderedDrift;
+    private long publishedVersion = -1; // Engine state version of the latest snapshot
+ 
+    // Sprite backends, chosen with -Drabbithop.renderer=canvas|pixels|scene and cycled with F4:
+    // drawImage per sprite, a software frame (PixelFrame), or retained ImageViews over the canvas
+    private enum Backend { CANVAS, PIXELS, SCENE }
+    private Backend backend = parseBackend(System.getProperty("rabbithop.renderer", "canvas"));
+    private CanvasRenderer canvasRenderer;
+    private PixelFrame pixelFrame;
+    private SceneGraphRenderer sceneRenderer;
+ 
+    // Frame-time overlay, toggled with F3
+    private final FrameProfiler profiler = new FrameProfiler();
+    private final TickTimer tickTimer = profiler.createTickTimer();
+ 
+    // HUD elements, updated when GameManager state changes
+    private GameHud gameHud;
  
    
     /**
@@ -76,7 +151,12 @@ public class GameScreen extends Screen {
         // Create canvas for game rendering
         canvas = new Canvas(WIDTH, HEIGHT);
         gc = canvas.getGraphicsContext2D();
-        root.setCenter(canvas);
+        canvasRenderer = new CanvasRenderer(gc);
+        sceneRenderer = new SceneGraphRenderer(WIDTH, HEIGHT);
+        overlay = new Canvas(WIDTH, HEIGHT);
+        overlay.setMouseTransparent(true);
+        overlayGc = overlay.getGraphicsContext2D();
+        root.setCenter(new StackPane(canvas, sceneRenderer.getNode(), overlay));
  
         // Create HUD
         HBox hud = createHUD();
@@ -88,8 +168,9 @@ public class GameScreen extends Screen {
         // Set up input handling
         setupInput();
  
-        // Initialize game entities
-        initializeEntities();
+        // Create the game world
+        engine = new GameEngine(createEngineEvents());
+        engine.setTickTimer(tickTimer);
  
         // Create game loop
         createGameLoop();
@@ -104,19 +185,9 @@ private HBox createHUD() {
     HBox hud = new HBox(20);
     hud.setStyle("-fx-background-color: rgba(0, 0, 0, 0.7); -fx-padding: 10px;");
     
-    // create text
-    coinsText = new Text("coin: 0");
-    healthText = new Text("HP: 15");
-    levelText = new Text("Level: 1");
-    
-    // text arrangement
-    Font hudFont = Font.font("Arial", FontWeight.BOLD, 16);
-    coinsText.setFont(hudFont);
-    healthText.setFont(hudFont);
-    levelText.setFont(hudFont);
-    coinsText.setFill(Color.GOLD);
-    healthText.setFill(Color.LIGHTGREEN);
-    levelText.setFill(Color.WHITE);
+    // level, coins and health
+    gameHud = new GameHud(Font.font("Arial", FontWeight.BOLD, 16));
+    gameManager.addStateListener(this::updateHUD);
     
     // save button
     Text saveButton = new Text("Save Game");
@@ -154,7 +225,8 @@ private HBox createHUD() {
     });
     
     // add in hud
-    hud.getChildren().addAll(levelText, coinsText, healthText, saveButton, storeButton);
+    hud.getChildren().addAll(gameHud.getNodes());
+    hud.getChildren().addAll(saveButton, storeButton);
     
     return hud;
 }
@@ -178,499 +250,518 @@ private void showSaveConfirmation() {
      * Set up keyboard input handling
      */
     private void setupInput() {
-        scene.setOnKeyPressed(e -> pressedKeys.add(e.getCode()));
-        scene.setOnKeyReleased(e -> pressedKeys.remove(e.getCode()));
+        scene.setOnKeyPressed(e -> {
+            if (e.getCode() == KeyCode.F3) {
+                profiler.toggle();
+                lastRenderedSnapshot = null; // Draw (or clear) the overlay even if the world is still
+            } else if (e.getCode() == KeyCode.F4) {
+                switchBackend(Backend.values()[(backend.ordinal() + 1) % Backend.values().length]);
+            }
+            pressedKeys.add(e.getCode());
+            inputBits = toInputBits(pressedKeys);
+        });
+        scene.setOnKeyReleased(e -> {
+            pressedKeys.remove(e.getCode());
+            inputBits = toInputBits(pressedKeys);
+        });
     }
  
-    /**
-     * Initialize game entities
-     */
-    private void initializeEntities() {
-        // Create rabbit
-        rabbit = new Rabbit(100, HEIGHT - GROUND_HEIGHT - 100, 
-        gameManager.getRabbitSpeed(), gameManager.getJumpHeight(), gameManager);
-        // Create platforms
-        platforms = new ArrayList<>();
- 
-        // Ground is a special platform
-        platforms.add(new Platform(0, HEIGHT - GROUND_HEIGHT, LEVEL_WIDTH, GROUND_HEIGHT, true));
- 
-        // Coins and bushes will be generated when setting up the level
-        coins = new ArrayList<>();
-        toxicBushes = new ArrayList<>();
+    private static Backend parseBackend(String name) {
+        switch (name) {
+            case "pixels":
+                return Backend.PIXELS;
+            case "scene":
+                return Backend.SCENE;
+            default:
+                return Backend.CANVAS;
+        }
     }
  
     /**
-     * Create the game loop
+     * Change the sprite backend while the game runs
+     * @param next The new backend
      */
-    private void createGameLoop() {
-        gameLoop = new AnimationTimer() {
-            @Override
-            public void handle(long now) {
-                // Calculate delta time
-                if (lastUpdateTime == 0) {
-                    lastUpdateTime = now;
-                    return;
-                }
- 
-                double deltaTime = (now - lastUpdateTime) / 1_000_000_000.0;
-                lastUpdateTime = now;
- 
-                // Update and render game
-                update(deltaTime);
-                render();
-            }
-        };
+    private void switchBackend(Backend next) {
+        if (backend == Backend.SCENE) {
+            // The retained nodes would stay on top of the canvas
+            sceneRenderer.clear();
+        }
+        backend = next;
+        lastRenderedSnapshot = null;
+        System.out.println("Renderer: " + backend.name().toLowerCase());
     }
  
     /**
-     * Start the game loop
+     * Map the held keys to GameEngine.INPUT_* bits
+     * @param keys Keys currently held
+     * @return Input bitmask
      */
-    public void startGameLoop() {
-        if (gameLoop != null) {
-            lastUpdateTime = 0;
-            gameLoop.start();
+    private static int toInputBits(Set<KeyCode> keys) {
+        int bits = 0;
+        if (keys.contains(KeyCode.LEFT) || keys.contains(KeyCode.A)) {
+            bits |= GameEngine.INPUT_LEFT;
+        }
+        if (keys.contains(KeyCode.RIGHT) || keys.contains(KeyCode.D)) {
+            bits |= GameEngine.INPUT_RIGHT;
+        }
+        if (keys.contains(KeyCode.SPACE) || keys.contains(KeyCode.W) || keys.contains(KeyCode.UP)) {
+            bits |= GameEngine.INPUT_JUMP;
         }
+        return bits;
     }
  
     /**
-     * Stop the game loop
+     * Create the handler for engine events.
+     * Runs on the simulation thread: sounds are requested directly (the
+     * SoundManager queue is thread-safe), GameManager changes are posted
+     * to the JavaFX thread.
      */
-    public void stopGameLoop() {
-        if (gameLoop != null) {
-            gameLoop.stop();
-        }
-    }
+    private GameEvents createEngineEvents() {
+        return new GameEvents() {
+            @Override
+            public void rabbitJumped(double x) {
+                gameManager.getSoundManager().requestSound("jump", x);
+            }
  
-   /**
- * Set up a level
- * @param level Level number
- */
-public void setupLevel(int level) {
-    // Reset entities
-    platforms.clear();
-    coins.clear();
-    toxicBushes.clear();
-   
-    // Create ground platform
-    Platform groundPlatform = new Platform(0, HEIGHT - GROUND_HEIGHT, LEVEL_WIDTH, GROUND_HEIGHT, true);
-    platforms.add(groundPlatform);
-   
-    // Calculate maximum jump height
-    double maxJumpHeight = gameManager.getJumpHeight() ;
-   
-    // Divide the level into vertical sections for better platform distribution
-    int numVerticalSections = 6;
-    double sectionHeight = (HEIGHT - GROUND_HEIGHT - 100) / numVerticalSections;
-   
-    // Generate platforms based on level
-    int numPlatforms = 15 + (level * 5); // More platforms in higher levels
-    List<Platform> tempPlatforms = new ArrayList<>();
-    tempPlatforms.add(groundPlatform);
-   
-    // Place platforms starting from the bottom, ensuring they're reachable
-    for (int section = numVerticalSections - 1; section >= 0; section--) {
-        int platformsInSection = numPlatforms / numVerticalSections;
-        if (section == 0) {
-            // Add any remaining platforms to the top section
-            platformsInSection += numPlatforms % numVerticalSections;
-        }
-       
-        // Calculate y range for this section
-        double minY = section * sectionHeight + 100;
-        double maxY = (section + 1) * sectionHeight + 100;
-       
-        // Create platforms in this section
-        for (int i = 0; i < platformsInSection; i++) {
-            boolean validPosition = false;
-            Platform newPlatform = null;
-            int attempts = 0;
-           
-            // Try to find a non-overlapping position that's reachable
-            while (!validPosition && attempts < 20) {
-                double x = random.nextDouble() * (LEVEL_WIDTH - 200);
-                double y = minY + random.nextDouble() * (maxY - minY);
-                double width = 100 + random.nextDouble() * 150;
-               
-                newPlatform = new Platform(x, y, width, 20, false);
-               
-                // Check for platform overlap
-                boolean overlaps = false;
-                for (Platform p : tempPlatforms) {
-                    if (platformsOverlap(newPlatform, p)) {
-                        overlaps = true;
-                        break;
-                    }
-                }
-               
-                // Check if this platform is reachable from at least one platform below
-                boolean isReachable = false;
-               
-                // Ground is always a reachable starting point
-                if (y > HEIGHT - GROUND_HEIGHT - maxJumpHeight) {
-                    isReachable = true;
-                } else {
-                    for (Platform p : tempPlatforms) {
-                        // Only consider platforms below this one
-                        if (p.getY() > y && p.getY() - maxJumpHeight <= y) {
-                            // Check horizontal overlap or proximity
-                            if ((x < p.getX() + p.getWidth() + 100 &&
-                                 x + width + 100 > p.getX())) {
-                                isReachable = true;
-                                break;
-                            }
-                        }
-                    }
-                }
-               
-                validPosition = !overlaps && isReachable;
-                attempts++;
+            @Override
+            public void coinCollected(Coin coin) {
+                runOnFxThread(() -> gameManager.addCoins(1));
+                gameManager.getSoundManager().requestSound("coin_collect", coin.getX());
             }
-        {
-            if (validPosition && newPlatform != null) 
-                tempPlatforms.add(newPlatform);
+ 
+            @Override
+            public void bushHit(ToxicBush bush) {
+                runOnFxThread(gameManager::hitToxicBerries);
+                gameManager.getSoundManager().requestSound("hurt", bush.getX());
             }
-        }
-    }
-   
-    // Add all platforms except the ground (which was already added)
-    for (int i = 1; i < tempPlatforms.size(); i++) {
-        platforms.add(tempPlatforms.get(i));
-    }
-   
-    // Generate coins
-    for (int i = 0; i < TOTAL_COINS_PER_LEVEL; i++) {
-        placeCoin();
-    }
-   
-    // Generate toxic bushes
-    for (int i = 0; i < TOTAL_BUSHES_PER_LEVEL; i++) {
-        placeToxicBush();
-    }
-   
-    // Reset rabbit
-    rabbit.reset(100, HEIGHT - GROUND_HEIGHT - 100);
-System.out.println("Rabbit reset to: " + (HEIGHT - GROUND_HEIGHT - 100) + 
-                  " (Ground height: " + GROUND_HEIGHT + ")");
-    rabbit.setSpeed(gameManager.getRabbitSpeed());
-    rabbit.setJumpHeight(gameManager.getJumpHeight());
-   
-    // Reset camera
-    cameraX = 0;
-   
-    // Update HUD
-    updateHUD();
-   
-    // Start game loop
-    startGameLoop();
-}
  
-/**
- * Check if two platforms overlap
- * @param p1 First platform
- * @param p2 Second platform
- * @return true if the platforms overlap
- */
-private boolean platformsOverlap(Platform p1, Platform p2) {
-    // Add a small buffer to prevent platforms from being too close
-    double buffer = 10;
-   
-    // Check for horizontal and vertical overlap
-    boolean horizontalOverlap = p1.getX() < p2.getX() + p2.getWidth() + buffer &&
-                                p1.getX() + p1.getWidth() + buffer > p2.getX();
-   
-    boolean verticalOverlap = p1.getY() < p2.getY() + p2.getHeight() + buffer &&
-                              p1.getY() + p1.getHeight() + buffer > p2.getY();
-   
-    return horizontalOverlap && verticalOverlap;
-}
+            @Override
+            public void rabbitFell() {
+                runOnFxThread(gameManager::hitToxicBerries); // Penalize falling
+            }
+ 
+            @Override
+            public void levelCompleted() {
+                // No more ticks; the FX thread joins the simulation before switching screens
+                simulationRunning = false;
+                runOnFxThread(() -> {
+                    stopGameLoop();
+                    gameManager.levelComplete();
+                });
+            }
+        };
+    }
  
     /**
-     * Place a coin on a platform
+     * Create the render loop.
+     * It runs on the JavaFX thread and only draws the latest snapshot
+     * published by the simulation thread (see runSimulation).
      */
-    private void placeCoin() {
-        // Try to find a suitable platform (not ground)
-        Platform platform = null;
-        while (platform == null || platform.isGround()) {
-            int index = random.nextInt(platforms.size());
-            platform = platforms.get(index);
-        }
+    private void createGameLoop() {
+        gameLoop = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                WorldSnapshot snapshot = latestSnapshot.get();
+                if (snapshot == null) {
+                    return;
+                }
+ 
+                // Interpolate from the previous towards the latest tick
+                double alpha = Math.min(1.0, (System.nanoTime() - snapshot.getTime()) / (double) TICK_NANOS);
+                boolean profiling = profiler.isEnabled();
+ 
+                // A snapshot already drawn at its final position looks the same again,
+                // unless the clouds have drifted by a pixel since (a few times a second)
+                long drift = background.getDriftPixels(System.nanoTime() / 1_000_000_000.0);
+                boolean unchanged = !profiling && snapshot == lastRenderedSnapshot && lastRenderedAlpha >= 1.0
+                        && drift == lastRenderedDrift;
+                if (!framePacer.shouldRender(now, scene.getWindow(), unchanged)) {
+                    if (profiling) {
+                        profiler.recordSkippedFrame(framePacer.getSkippedFrames(), framePacer.getStats());
+                    }
+                    return;
+                }
+                lastRenderedSnapshot = snapshot;
+                lastRenderedAlpha = alpha;
+                lastRenderedDrift = drift;
+ 
+                double frameTime = lastUpdateTime == 0 ? 0 : (now - lastUpdateTime) / 1_000_000_000.0;
+                lastUpdateTime = now;
  
-        // Place coin on the platform
-        double coinX = platform.getX() + random.nextDouble() * (platform.getWidth() - 32);
-        double coinY = platform.getY() - 32 - 5; // Above the platform
+                boolean timed = BENCHMARK || profiling;
  
-        coins.add(new Coin(coinX, coinY));
+                long renderStart = timed ? System.nanoTime() : 0;
+                int drawCalls = render(snapshot, alpha);
+                long renderNanos = timed ? System.nanoTime() - renderStart : 0;
+                if (BENCHMARK && frameTime > 0) {
+                    recordBenchmarkFrame(renderNanos, frameTime);
+                }
+ 
+                // The HUD nodes update on state changes; only the canvas HUD is drawn per frame,
+                // on the overlay so retained sprite nodes cannot cover it
+                long hudStart = profiling ? System.nanoTime() : 0;
+                if (overlayDrawn) {
+                    overlayGc.clearRect(0, 0, WIDTH, HEIGHT);
+                }
+                int hudCalls = gameHud.render(overlayGc, WIDTH - 10, 10);
+                drawCalls += hudCalls;
+                overlayDrawn = hudCalls > 0 || profiling;
+ 
+                if (profiling) {
+                    profiler.setPacingStats(framePacer.getSkippedFrames(), framePacer.getStats());
+                    profiler.recordFrame(frameTime, renderNanos, System.nanoTime() - hudStart,
+                            drawCalls, snapshot.getSpriteCount(), snapshot.getTimings());
+                    profiler.render(overlayGc, 10, 10);
+                }
+            }
+        };
     }
  
     /**
-     * Place a toxic bush on a platform
+     * Body of the simulation thread.
+     * Advances the world in fixed ticks of TICK_DURATION and publishes a
+     * snapshot after each batch. Between batches the thread parks until
+     * the next tick is due.
      */
-    private void placeToxicBush() {
-        // Try to find a suitable platform (not ground)
-        Platform platform = null;
-        while (platform == null || platform.isGround()) {
-            int index = random.nextInt(platforms.size());
-            platform = platforms.get(index);
-        }
+    private void runSimulation() {
+        long previousTime = System.nanoTime();
+        long accumulator = 0;
+ 
+        while (simulationRunning) {
+            long now = System.nanoTime();
+            accumulator += now - previousTime;
+            previousTime = now;
+ 
+            // Run as many fixed ticks as the elapsed time allows
+            int steps = 0;
+            while (accumulator >= TICK_NANOS && steps < MAX_CATCH_UP_STEPS && simulationRunning) {
+                tick();
+                accumulator -= TICK_NANOS;
+                steps++;
+            }
  
-        // Place bush on the platform
-        double bushX = platform.getX() + random.nextDouble() * (platform.getWidth() - 48);
-        double bushY = platform.getY() - 48; // Above the platform
+            // After a long hitch, drop the time we could not catch up on
+            if (accumulator >= TICK_NANOS) {
+                accumulator %= TICK_NANOS;
+            }
  
-        // Check if bush overlaps with coins
-        boolean overlapsWithCoin = false;
-        for (Coin coin : coins) {
-            if (Math.abs(bushX - coin.getX()) < 48 && Math.abs(bushY - coin.getY()) < 48) {
-                overlapsWithCoin = true;
-                break;
+            if (steps > 0) {
+                publishSnapshot();
             }
-        }
  
-        if (!overlapsWithCoin) {
-            toxicBushes.add(new ToxicBush(bushX, bushY));
-        } else {
-            // Try again if there's overlap
-            placeToxicBush();
+            LockSupport.parkNanos(TICK_NANOS - accumulator);
         }
     }
  
     /**
-     * Update the game state
-     *
-     * @param deltaTime Time since last update
+     * Advance the engine by one tick, with the sounds it requests played
+     * at the end of the tick
      */
-    private void update(double deltaTime) {
-        // Handle input
-        handleInput(deltaTime);
- 
-        // Update rabbit
-        rabbit.update(deltaTime);
- 
-        // Check platform collisions
-        handlePlatformCollisions();
- 
-        // Update all entities
-        for (Coin coin : coins) {
-            coin.update(deltaTime);
+    private void tick() {
+        SoundManager soundManager = gameManager.getSoundManager();
+ 
+        int input = inputBits;
+        double deltaTime = TICK_DURATION;
+        if (replay != null) {
+            input = replayTick < replay.getTickCount() ? replay.getInput(replayTick++) : 0;
+            deltaTime = replay.getTickDuration();
         }
- 
-        for (ToxicBush bush : toxicBushes) {
-            bush.update(deltaTime);
+        if (recording != null) {
+            recording.record(input);
         }
  
-        // Check coin collisions
-        handleCoinCollisions();
- 
-        // Check toxic bush collisions
-        handleBushCollisions();
- 
-        // Update camera
-        updateCamera();
- 
-        // Check level completion
-        checkLevelCompletion();
+        // Sounds from outside the view are skipped
+        soundManager.setListenerRange(engine.getCameraX(), engine.getCameraX() + WIDTH);
+        engine.step(input, deltaTime);
+        soundManager.flushSounds();
+    }
  
-        // Update HUD
-        updateHUD();
+    /**
+     * Capture the world and hand it to the render loop.
+     * Only called by the thread that currently owns the entities.
+     */
+    private void publishSnapshot() {
+        // A still world keeps the snapshot already published, so the render loop
+        // sees the same object and can skip the frame (the profiler wants every batch)
+        long version = engine.getStateVersion();
+        if (version == publishedVersion && !profiler.isEnabled() && latestSnapshot.get() != null) {
+            return;
+        }
+        publishedVersion = version;
+ 
+        // Only what can come into view before the next snapshot
+        visibleCoins.clear();
+        visibleBushes.clear();
+        engine.queryRange(engine.getCameraX() - SNAPSHOT_MARGIN, engine.getCameraX() + WIDTH + SNAPSHOT_MARGIN,
+                visibleCoins, visibleBushes);
+ 
+        latestSnapshot.set(WorldSnapshot.capture(System.nanoTime(), engine.getPrevCameraX(), engine.getCameraX(),
+                tickTimer.drain(), StaticLayerCache.isEnabled() ? List.of() : engine.getPlatforms(),
+                visibleCoins, visibleBushes,
+                List.of(engine.getRabbit())));
     }
  
     /**
-     * Handle user input
-     *
-     * @param deltaTime Time since last update
+     * Run game state changes (coins, health, screen changes) on the JavaFX
+     * thread, where GameManager and the screens live
+     * @param action The change
      */
-    private void handleInput(double deltaTime) {
-        // Reset velocity first
-        rabbit.stopMoving();
+    private void runOnFxThread(Runnable action) {
+        javafx.application.Platform.runLater(action);
+    }
  
-        // Handle left/right movement
-        if (pressedKeys.contains(KeyCode.LEFT) || pressedKeys.contains(KeyCode.A)) {
-            rabbit.moveLeft();
+    /**
+     * Accumulate render timings and print the averages every BENCHMARK_FRAMES frames
+     * @param renderNanos Time spent in render()
+     * @param frameSeconds Time since the previous frame
+     */
+    private void recordBenchmarkFrame(long renderNanos, double frameSeconds) {
+        benchmarkRenderNanos += renderNanos;
+        benchmarkFrameSeconds += frameSeconds;
+        benchmarkFrames++;
+
+        if (benchmarkFrames == BENCHMARK_FRAMES) {
+            System.out.printf("Render benchmark (sprite variants %s, static cache %s): %.3f ms render, %.2f ms frame, avg of %d frames%n",
+                    SpriteVariants.isEnabled() ? "on" : "off",
+                    StaticLayerCache.isEnabled() ? "on" : "off",
+                    benchmarkRenderNanos / 1_000_000.0 / benchmarkFrames,
+                    benchmarkFrameSeconds * 1000 / benchmarkFrames,
+                    benchmarkFrames);
+            System.out.println(gameManager.getSoundManager().getStats());
+            benchmarkRenderNanos = 0;
+            benchmarkFrameSeconds = 0;
+            benchmarkFrames = 0;
         }
+    }
  
-        if (pressedKeys.contains(KeyCode.RIGHT) || pressedKeys.contains(KeyCode.D)) {
-            rabbit.moveRight();
+    /**
+     * Start the simulation thread and the render loop
+     */
+    public void startGameLoop() {
+        if (gameLoop == null || simulationRunning) {
+            return;
         }
  
-        // Handle jumping
-        if (pressedKeys.contains(KeyCode.SPACE) || pressedKeys.contains(KeyCode.W)
-                || pressedKeys.contains(KeyCode.UP)) {
-            rabbit.jump();
-        }
+        // Show the current state until the first tick is published
+        publishSnapshot();
+        lastUpdateTime = 0;
+        lastRenderedSnapshot = null;
+        framePacer.reset();
+ 
+        simulationRunning = true;
+        simulationThread = new Thread(this::runSimulation, "game-simulation");
+        simulationThread.setDaemon(true);
+        simulationThread.start();
+        gameLoop.start();
     }
  
     /**
-     * Handle collisions with platforms
+     * Stop the simulation thread and the render loop.
+     * Waits for the simulation to finish its current tick, so the caller
+     * owns the entities afterwards.
      */
-    private void handlePlatformCollisions() {
-        boolean onAnyPlatform = false;
- 
-        for (Platform platform : platforms) {
-            if (rabbit.shouldLandOn(platform)) {
-                rabbit.land(platform.getY());
-                onAnyPlatform = true;
-                break;
+    public void stopGameLoop() {
+        simulationRunning = false;
+        if (simulationThread != null && simulationThread != Thread.currentThread()) {
+            LockSupport.unpark(simulationThread);
+            try {
+                simulationThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
             }
+            simulationThread = null;
         }
-       // System.out.println("On platform: " + onAnyPlatform + ", y-pos: " + rabbit.getY());
-        // Check if rabbit is off-screen (fell)
-        if (rabbit.getY() > HEIGHT) {
-            rabbit.reset(100, HEIGHT - GROUND_HEIGHT - 100);
-            gameManager.hitToxicBerries(); // Penalize falling
+        if (gameLoop != null) {
+            gameLoop.stop();
         }
  
-        // Check level boundaries
-        if (rabbit.getX() < 0) {
-            rabbit.setX(0);
-        } else if (rabbit.getX() > LEVEL_WIDTH - rabbit.getWidth()) {
-            rabbit.setX(LEVEL_WIDTH - rabbit.getWidth());
-        }
+        // Keep the file up to date with every tick run so far
+        saveRecording();
     }
  
     /**
-     * Handle collisions with coins
+     * Write the input recording of the current level, if recording is on
      */
-    private void handleCoinCollisions() {
-        for (Coin coin : coins) {
-            if (!coin.isCollected() && rabbit.intersects(coin)) {
-                coin.collect();
-                gameManager.addCoins(1);
-                
-                // Play coin collect sound
-                gameManager.getSoundManager().playSound("coin_collect");
-            }
+    private void saveRecording() {
+        if (recording == null || recording.getTickCount() == 0) {
+            return;
+        }
+ 
+        Path file = Path.of(RECORD_DIRECTORY,
+                "replay-level" + recording.getLevel() + "-" + recording.getSeed() + ".rhr");
+        try {
+            Files.createDirectories(file.getParent());
+            recording.save(file);
+            System.out.println("Saved " + recording.getTickCount() + " ticks of input to " + file);
+        } catch (IOException e) {
+            System.out.println("Could not save input recording: " + e.getMessage());
         }
     }
  
     /**
-     * Handle collisions with toxic bushes
+     * Load the replay given with -Drabbithop.replay if it is for this level
+     * @param level Level number
+     * @return The replay, or null to play from the keyboard
      */
-    private void handleBushCollisions() {
-        for (ToxicBush bush : toxicBushes) {
-            if (bush.canDamageRabbit() && rabbit.intersects(bush)) {
-                bush.hitByRabbit();
-                gameManager.hitToxicBerries();
-                
-                // Play hurt sound
-                gameManager.getSoundManager().playSound("hurt");
+    private InputRecording loadReplay(int level) {
+        if (REPLAY_FILE == null) {
+            return null;
+        }
+ 
+        try {
+            InputRecording loaded = InputRecording.load(Path.of(REPLAY_FILE));
+            if (loaded.getLevel() != level) {
+                return null;
             }
+            System.out.println("Replaying " + loaded.getTickCount() + " ticks from " + REPLAY_FILE);
+            return loaded;
+        } catch (IOException e) {
+            System.out.println("Could not load replay: " + e.getMessage());
+            return null;
         }
     }
  
     /**
-     * Update camera position to follow the rabbit
+     * Set up a level
+     * @param level Level number
      */
-    private void updateCamera() {
-        // Center the camera on the rabbit
-        double targetX = rabbit.getX() - WIDTH / 2 + rabbit.getWidth() / 2;
- 
-        // Clamp camera to level boundaries
-        if (targetX < 0) {
-            targetX = 0;
-        } else if (targetX > LEVEL_WIDTH - WIDTH) {
-            targetX = LEVEL_WIDTH - WIDTH;
+    public void setupLevel(int level) {
+        long setupStart = System.nanoTime();
+ 
+        // The entities are rebuilt, so the simulation must not be running
+        stopGameLoop();
+ 
+        // Levels are generated from a seed so a run can be replayed
+        replay = loadReplay(level);
+        replayTick = 0;
+        if (replay != null) {
+            replay.setupLevel(engine);
+        } else {
+            engine.setupLevel(level, gameManager.getRabbitSpeed(), gameManager.getJumpHeight(),
+                    seedSource.nextLong());
         }
+        if (RECORD_DIRECTORY != null) {
+            recording = new InputRecording(level, engine.getSeed(), engine.getRabbit().getSpeed(),
+                    engine.getRabbit().getJumpHeight(), replay != null ? replay.getTickDuration() : TICK_DURATION);
+        }
+ 
+        // Nodes of the previous level's entities are not needed any more
+        sceneRenderer.clear();
  
-        // Smooth camera movement
-        cameraX = cameraX * 0.9 + targetX * 0.1;
+        // Scale the sprites now, not on the first frame or the simulation thread
+        engine.prepareSprites();
+ 
+        // Draw the background layers (once) and the platforms; frames only copy tiles
+        updatePixelScale();
+ 
+        profiler.setEntityCounts(engine.getPlatforms().size() + " platforms (" + staticLayer.getChunkCount()
+                + " chunks), " + engine.getCoins().size() + " coins, " + engine.getToxicBushes().size() + " bushes");
+ 
+        // Update HUD
+        updateHUD();
+ 
+        // Report level load cost (sprites come from the shared ImageCache)
+        System.out.println("Level " + level + " (seed " + engine.getSeed() + ") set up in "
+                + (System.nanoTime() - setupStart) / 1_000_000 + " ms - " + ImageCache.getStats());
+ 
+        // Start game loop
+        startGameLoop();
     }
  
     /**
-     * Check if the level is completed
+     * Render the background and platform images at the current output
+     * scale: for a new level, or after the window moved to another monitor
      */
-    private void checkLevelCompletion() {
-        int collectedCoins = 0;
- 
-        for (Coin coin : coins) {
-            if (coin.isCollected()) {
-                collectedCoins++;
-            }
+    public void updatePixelScale() {
+        background.build(getPixelScale());
+        if (StaticLayerCache.isEnabled()) {
+            staticLayer.build(engine.getPlatforms(), GameEngine.LEVEL_WIDTH, HEIGHT, getPixelScale());
         }
  
-        // Level is completed when all coins are collected
-        if (collectedCoins >= TOTAL_COINS_PER_LEVEL) {
-            stopGameLoop();
-            gameManager.levelComplete();
+        // The software frame's copies of the replaced images would never be used again
+        if (pixelFrame != null) {
+            pixelFrame.clearCache();
         }
+        lastRenderedSnapshot = null;
     }
  
     /**
-     * Update HUD information
+     * Get the output scale of the window. Taken from the stage, because
+     * levels are set up before this screen's scene is attached to it.
+     * @return Device pixels per canvas pixel
+     */
+    private double getPixelScale() {
+        return gameManager.getOutputScale();
+    }
+ 
+    /**
+     * Update HUD information (only values that changed are redrawn)
      */
     private void updateHUD() {
-        coinsText.setText("Coins: " + gameManager.getCoins());
-        healthText.setText("Health: " + gameManager.getHealth());
-        levelText.setText("Level: " + gameManager.getCurrentLevel());
- 
-        // Update health color based on health value
-        if (gameManager.getHealth() <= 3) {
-            healthText.setFill(Color.RED);
-        } else if (gameManager.getHealth() <= 5) {
-            healthText.setFill(Color.ORANGE);
-        } else {
-            healthText.setFill(Color.LIGHTGREEN);
-        }
+        gameHud.update(gameManager.getCurrentLevel(), gameManager.getCoins(), gameManager.getHealth());
+        lastRenderedSnapshot = null; // The canvas HUD is only drawn with a frame
     }
  
     /**
-     * Render the game
+     * Render a snapshot of the game
+     *
+     * @param snapshot The world to draw
+     * @param alpha Interpolation factor between the previous and current tick
+     * @return Number of draw calls issued
      */
-    private void render() {
-        // Clear the canvas
-        gc.clearRect(0, 0, WIDTH, HEIGHT);
+    private int render(WorldSnapshot snapshot, double alpha) {
+        if (backend == Backend.PIXELS) {
+            return renderPixels(snapshot, alpha);
+        }
+        double cameraX = snapshot.getCameraX(alpha);
  
-        // Draw background
-        renderBackground();
+        // Draw background (opaque, so the canvas needs no clearing)
+        int drawn = background.render(gc, cameraX, System.nanoTime() / 1_000_000_000.0);
  
-        // Apply camera transform
+        // Apply camera transform (interpolated like the rabbit)
         gc.save();
         gc.translate(-cameraX, 0);
  
-        // Render platforms
-        for (Platform platform : platforms) {
-            // Only render platforms that are visible on screen
-            if (platform.getX() + platform.getWidth() >= cameraX &&
-                    platform.getX() <= cameraX + WIDTH) {
-                platform.render(gc);
-            }
-        }
- 
-        // Render coins
-        for (Coin coin : coins) {
-            // Only render coins that are visible and not collected
-            if (!coin.isCollected() &&
-                    coin.getX() + coin.getWidth() >= cameraX &&
-                    coin.getX() <= cameraX + WIDTH) {
-                coin.render(gc);
-            }
-        }
+        // Platforms and ground from the cache (unless they are in the snapshot)
+        drawn += staticLayer.render(gc, cameraX, cameraX + WIDTH);
  
-        // Render toxic bushes
-        for (ToxicBush bush : toxicBushes) {
-            // Only render bushes that are visible
-            if (bush.getX() + bush.getWidth() >= cameraX &&
-                    bush.getX() <= cameraX + WIDTH) {
-                bush.render(gc);
-            }
+        // Coins, bushes and the rabbit, skipping what is off screen
+        if (backend == Backend.SCENE) {
+            // Retained nodes over the canvas; only their translation changes
+            sceneRenderer.beginFrame(cameraX);
+            snapshot.render(sceneRenderer, alpha, cameraX, cameraX + WIDTH);
+            sceneRenderer.endFrame();
+        } else {
+            drawn += snapshot.render(canvasRenderer, alpha, cameraX, cameraX + WIDTH);
         }
  
-        // Render rabbit
-        rabbit.render(gc);
- 
         // Restore transform
         gc.restore();
+ 
+        return drawn;
     }
  
     /**
-     * Render the background
+     * Render a snapshot in software and show it with a single drawImage
+     *
+     * @param snapshot The world to draw
+     * @param alpha Interpolation factor between the previous and current tick
+     * @return Number of draw calls issued (always 1)
      */
-    private void renderBackground() {
-        // Simple gradient background
-        gc.setFill(Color.SKYBLUE);
-        gc.fillRect(0, 0, WIDTH, HEIGHT);
- 
-        // Draw clouds or other background elements
+    private int renderPixels(WorldSnapshot snapshot, double alpha) {
+        if (pixelFrame == null) {
+            pixelFrame = new PixelFrame(WIDTH, HEIGHT);
+        }
+        double cameraX = snapshot.getCameraX(alpha);
+ 
+        pixelFrame.compose(() -> {
+            background.render(pixelFrame, cameraX, System.nanoTime() / 1_000_000_000.0);
+            pixelFrame.setTranslateX(-cameraX);
+            staticLayer.render(pixelFrame, cameraX, cameraX + WIDTH);
+            snapshot.render(pixelFrame, alpha, cameraX, cameraX + WIDTH);
+        });
+        gc.drawImage(pixelFrame.getImage(), 0, 0);
+        return 1;
     }
 }
  
\ No newline at end of file
@@ -0,0 +1,108 @@
+package com.rabbithop.screens;
+
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+import javafx.scene.text.TextBoundsType;
+
+/**
+ * A fixed set of characters rendered once, side by side, into one image.
+ * Text is then drawn by copying each character's slice of the image, so
+ * no glyphs are laid out or rasterized per frame. Characters not in the
+ * strip are drawn as blanks. Must be created on the JavaFX thread.
+ */
+public class GlyphStrip {
+
+    private final String characters;
+    private final double[] offsets;
+    private final double[] advances;
+    private final double height;
+    private final double spaceWidth;
+    private final WritableImage image;
+
+    /**
+     * @param characters The characters to render
+     * @param font Font of the text
+     * @param color Color of the text
+     */
+    public GlyphStrip(String characters, Font font, Color color) {
+        this.characters = characters;
+        this.offsets = new double[characters.length()];
+        this.advances = new double[characters.length()];
+
+        // Lay out each character once to get its advance
+        Text measure = new Text();
+        measure.setFont(font);
+        measure.setBoundsType(TextBoundsType.LOGICAL);
+        double width = 0;
+        for (int i = 0; i < characters.length(); i++) {
+            measure.setText(String.valueOf(characters.charAt(i)));
+            offsets[i] = width;
+            advances[i] = Math.ceil(measure.getLayoutBounds().getWidth());
+            width += advances[i] + 1; // gap so smoothing does not bleed between glyphs
+        }
+        measure.setText(" ");
+        spaceWidth = measure.getLayoutBounds().getWidth();
+        height = Math.ceil(measure.getLayoutBounds().getHeight());
+        double baseline = measure.getBaselineOffset();
+
+        Canvas canvas = new Canvas(Math.max(1, width), Math.max(1, height));
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        gc.setFont(font);
+        gc.setFill(color);
+        for (int i = 0; i < characters.length(); i++) {
+            gc.fillText(String.valueOf(characters.charAt(i)), offsets[i], baseline);
+        }
+        SnapshotParameters parameters = new SnapshotParameters();
+        parameters.setFill(Color.TRANSPARENT);
+        image = canvas.snapshot(parameters, null);
+    }
+
+    /**
+     * Draw text from the strip
+     * @param gc Graphics context to draw on
+     * @param text The text
+     * @param x Left edge
+     * @param y Top edge
+     * @return Width of the drawn text
+     */
+    public double drawText(GraphicsContext gc, String text, double x, double y) {
+        double start = x;
+        for (int i = 0; i < text.length(); i++) {
+            int glyph = characters.indexOf(text.charAt(i));
+            if (glyph < 0) {
+                x += spaceWidth;
+                continue;
+            }
+            gc.drawImage(image, offsets[glyph], 0, advances[glyph], height, x, y, advances[glyph], height);
+            x += advances[glyph];
+        }
+        return x - start;
+    }
+
+    /**
+     * Measure text as drawText would draw it
+     * @param text The text
+     * @return Width in pixels
+     */
+    public double getWidth(String text) {
+        double width = 0;
+        for (int i = 0; i < text.length(); i++) {
+            int glyph = characters.indexOf(text.charAt(i));
+            width += glyph < 0 ? spaceWidth : advances[glyph];
+        }
+        return width;
+    }
+
+    /**
+     * Get the height of a line
+     * @return Height in pixels
+     */
+    public double getHeight() {
+        return height;
+    }
+}
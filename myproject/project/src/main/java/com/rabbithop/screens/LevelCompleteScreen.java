@@ -1,6 +1,7 @@
 package com.rabbithop.screens;
 
 import com.rabbithop.GameManager;
+import com.rabbithop.ImageCache;
 
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
@@ -67,7 +68,7 @@ public class LevelCompleteScreen extends Screen {
         // Try to load trophy image
         ImageView trophyView = new ImageView();
         try {
-            Image trophyImage = new Image(getClass().getResourceAsStream("/images/trophy.png"));
+            Image trophyImage = ImageCache.get("/images/trophy.png");
             trophyView.setImage(trophyImage);
             trophyView.setFitWidth(200);
             trophyView.setFitHeight(200);
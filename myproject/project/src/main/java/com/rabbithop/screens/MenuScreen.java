@@ -6,6 +6,7 @@ import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
+import javafx.scene.control.ProgressBar;
 import javafx.scene.effect.DropShadow;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
@@ -130,10 +131,36 @@ public class MenuScreen extends Screen {
         // Add buttons
         root.getChildren().addAll(startButton, loadButton, quitButton, soundButton);
         
+        // Show asset loading progress until the preloader is done
+        root.getChildren().add(createLoadingIndicator());
+        
         // Create the scene
         scene = new Scene(root, WIDTH, HEIGHT);
     }
     
+    /**
+     * Create the progress bar for the background asset loading
+     * @return Box with the loading text and progress bar
+     */
+    private VBox createLoadingIndicator() {
+        Text loadingText = new Text("Loading...");
+        loadingText.setFont(Font.font("Arial", FontWeight.BOLD, 14));
+        loadingText.setFill(Color.WHITE);
+        
+        ProgressBar progressBar = new ProgressBar();
+        progressBar.setPrefWidth(200);
+        progressBar.progressProperty().bind(gameManager.getAssetPreloader().progressProperty());
+        
+        VBox loadingBox = new VBox(5, loadingText, progressBar);
+        loadingBox.setAlignment(Pos.CENTER);
+        
+        // Hide the indicator (and its space) once everything is loaded
+        loadingBox.visibleProperty().bind(progressBar.progressProperty().lessThan(1));
+        loadingBox.managedProperty().bind(loadingBox.visibleProperty());
+        
+        return loadingBox;
+    }
+    
     // Show message that no save file exists
     private void showNoSaveMessage() {
         Alert alert = new Alert(Alert.AlertType.INFORMATION);
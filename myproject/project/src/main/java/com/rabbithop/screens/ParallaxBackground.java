@@ -0,0 +1,230 @@
+package com.rabbithop.screens;
+
+import com.rabbithop.ImageCache;
+
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.CycleMethod;
+import javafx.scene.paint.LinearGradient;
+import javafx.scene.paint.Stop;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+
+/**
+ * Scrolling background of the game screen: sky, far hills, clouds and
+ * near hills. Each layer moves at its own fraction of the camera speed
+ * (the clouds also drift with time), which gives the impression of depth.
+ * Layers are drawn once into tiles whose right edge continues into their
+ * left edge, so a frame costs one or two image copies per layer.
+ * Must be built and drawn on the JavaFX thread.
+ *
+ * Disable with -Drabbithop.parallax=false for a plain sky.
+ */
+public class ParallaxBackground {
+
+    private static final boolean ENABLED =
+            !"false".equals(System.getProperty("rabbithop.parallax"));
+
+    // Width of the hill and cloud tiles; at least the view width, so no more than two copies are needed
+    private static final int TILE_WIDTH = 1024;
+
+    /**
+     * One pre-rendered layer
+     */
+    private record Layer(WritableImage tile, double y, double width, double height,
+                         double scrollFactor, double driftSpeed) {
+    }
+
+    private final double viewWidth;
+    private final double viewHeight;
+    private final List<Layer> layers = new ArrayList<>();
+    private double builtScale;
+
+    /**
+     * @param viewWidth Width of the visible area
+     * @param viewHeight Height of the visible area
+     */
+    public ParallaxBackground(double viewWidth, double viewHeight) {
+        this.viewWidth = viewWidth;
+        this.viewHeight = viewHeight;
+    }
+
+    /**
+     * Render the layer tiles; does nothing if they already exist at this scale
+     * @param pixelScale Output scale of the screen, so HiDPI tiles stay sharp
+     */
+    public void build(double pixelScale) {
+        if (!ENABLED || (!layers.isEmpty() && pixelScale == builtScale)) {
+            return;
+        }
+        layers.clear();
+        builtScale = pixelScale;
+        Random random = new Random(42);
+
+        // Sky gradient, fixed behind everything
+        layers.add(createLayer(0, viewWidth, viewHeight, 0, 0, pixelScale, gc -> {
+            gc.setFill(new LinearGradient(0, 0, 0, 1, true, CycleMethod.NO_CYCLE,
+                    new Stop(0, Color.web("#5fa8e8")), new Stop(1, Color.web("#c8e9f7"))));
+            gc.fillRect(0, 0, viewWidth, viewHeight);
+        }));
+
+        // Far hills, barely moving
+        layers.add(createLayer(viewHeight - 420, TILE_WIDTH, 360, 0.15, 0, pixelScale,
+                gc -> drawHills(gc, 360, 220, 90, Color.web("#9cc7c9"), random)));
+
+        // Clouds, drifting slowly
+        Image cloud = ImageCache.get("/images/cloud.png");
+        layers.add(createLayer(20, TILE_WIDTH, 260, 0.3, 8, pixelScale,
+                gc -> drawClouds(gc, cloud, 260, random)));
+
+        // Near hills
+        layers.add(createLayer(viewHeight - 300, TILE_WIDTH, 240, 0.45, 0, pixelScale,
+                gc -> drawHills(gc, 240, 130, 60, Color.web("#6fae6a"), random)));
+    }
+
+    /**
+     * Draw the background
+     * @param gc Graphics context, not translated by the camera
+     * @param cameraX Camera position in the level
+     * @param time Time in seconds, for the drifting layers
+     * @return Number of draw calls issued
+     */
+    public int render(GraphicsContext gc, double cameraX, double time) {
+        if (layers.isEmpty()) {
+            gc.setFill(Color.SKYBLUE);
+            gc.fillRect(0, 0, viewWidth, viewHeight);
+            return 1;
+        }
+
+        int drawn = 0;
+        for (Layer layer : layers) {
+            double offset = getOffset(layer, cameraX, time);
+            // The tile and, where it ends inside the view, its next copy
+            for (double x = -offset; x < viewWidth; x += layer.width) {
+                gc.drawImage(layer.tile, x, layer.y, layer.width, layer.height);
+                drawn++;
+            }
+        }
+        return drawn;
+    }
+
+    /**
+     * Draw the background into a software frame
+     * @param frame The frame, not translated by the camera
+     * @param cameraX Camera position in the level
+     * @param time Time in seconds, for the drifting layers
+     */
+    public void render(PixelFrame frame, double cameraX, double time) {
+        if (layers.isEmpty()) {
+            frame.fill(Color.SKYBLUE);
+            return;
+        }
+
+        for (Layer layer : layers) {
+            double offset = getOffset(layer, cameraX, time);
+            for (double x = -offset; x < viewWidth; x += layer.width) {
+                frame.drawImage(layer.tile, x, layer.y, layer.width, layer.height);
+            }
+        }
+    }
+
+    /**
+     * Get how many whole pixels the fastest drifting layer has moved.
+     * While the camera is still the background only looks different when
+     * this changes, which lets a still frame be skipped between steps.
+     * @param time Time in seconds, as passed to render
+     * @return Drift in whole pixels
+     */
+    public long getDriftPixels(double time) {
+        double fastest = 0;
+        for (Layer layer : layers) {
+            fastest = Math.max(fastest, layer.driftSpeed);
+        }
+        return (long) Math.floor(time * fastest);
+    }
+
+    /**
+     * Get how far a layer has scrolled into its tile
+     */
+    private double getOffset(Layer layer, double cameraX, double time) {
+        double offset = (cameraX * layer.scrollFactor + time * layer.driftSpeed) % layer.width;
+        return offset < 0 ? offset + layer.width : offset;
+    }
+
+    private Layer createLayer(double y, double width, double height, double scrollFactor, double driftSpeed,
+                              double pixelScale, Consumer<GraphicsContext> painter) {
+        Canvas canvas = new Canvas(width * pixelScale, height * pixelScale);
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        gc.scale(pixelScale, pixelScale);
+        painter.accept(gc);
+
+        SnapshotParameters parameters = new SnapshotParameters();
+        parameters.setFill(Color.TRANSPARENT);
+        return new Layer(canvas.snapshot(parameters, null), y, width, height, scrollFactor, driftSpeed);
+    }
+
+    /**
+     * Draw a hill silhouette from sine waves that repeat exactly once per
+     * tile, so the tile wraps without a seam
+     */
+    private void drawHills(GraphicsContext gc, double height, double baseHeight, double amplitude,
+                           Color color, Random random) {
+        int waves = 3;
+        int[] periods = new int[waves];
+        double[] phases = new double[waves];
+        for (int i = 0; i < waves; i++) {
+            periods[i] = 1 + random.nextInt(2) + i * 2;
+            phases[i] = random.nextDouble() * Math.PI * 2;
+        }
+
+        int steps = TILE_WIDTH / 8;
+        double[] xs = new double[steps + 3];
+        double[] ys = new double[steps + 3];
+        for (int step = 0; step <= steps; step++) {
+            double x = step * 8.0;
+            double wave = 0;
+            for (int i = 0; i < waves; i++) {
+                wave += Math.sin(x / TILE_WIDTH * Math.PI * 2 * periods[i] + phases[i]) / (i + 1);
+            }
+            xs[step] = x;
+            ys[step] = height - baseHeight - wave * amplitude / 2;
+        }
+        xs[steps + 1] = TILE_WIDTH;
+        ys[steps + 1] = height;
+        xs[steps + 2] = 0;
+        ys[steps + 2] = height;
+
+        gc.setFill(color);
+        gc.fillPolygon(xs, ys, xs.length);
+    }
+
+    /**
+     * Scatter clouds over the tile; a cloud crossing the right edge is
+     * drawn again at the left edge
+     */
+    private void drawClouds(GraphicsContext gc, Image cloud, double height, Random random) {
+        if (cloud == null) {
+            return;
+        }
+        gc.setGlobalAlpha(0.85);
+        int count = 5;
+        for (int i = 0; i < count; i++) {
+            double width = 140 + random.nextDouble() * 100;
+            double cloudHeight = width / 2;
+            double x = i * TILE_WIDTH / (double) count + random.nextDouble() * 80;
+            double y = random.nextDouble() * (height - cloudHeight);
+            gc.drawImage(cloud, x, y, width, cloudHeight);
+            if (x + width > TILE_WIDTH) {
+                gc.drawImage(cloud, x - TILE_WIDTH, y, width, cloudHeight);
+            }
+        }
+        gc.setGlobalAlpha(1.0);
+    }
+}
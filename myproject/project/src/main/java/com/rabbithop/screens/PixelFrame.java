@@ -0,0 +1,243 @@
+package com.rabbithop.screens;
+
+import com.rabbithop.SpriteRegion;
+import com.rabbithop.SpriteRenderer;
+import com.rabbithop.SpriteVariants;
+
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelBuffer;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.PixelReader;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Software renderer: composes a frame in a direct IntBuffer that a
+ * WritableImage shares through a PixelBuffer, so the finished frame
+ * reaches the screen with one drawImage and no pixel copy. Images and
+ * sprites are decoded once into premultiplied ARGB arrays at the size
+ * they are drawn, and copied with plain loops (opaque rows in bulk,
+ * translucent pixels blended). Positions snap to whole pixels.
+ * Must be used on the JavaFX thread.
+ */
+public class PixelFrame implements SpriteRenderer {
+
+    /**
+     * Pixels of a decoded image or sprite
+     */
+    private record Pixels(int[] argb, int width, int height, boolean opaque) {
+    }
+
+    private record Key(Object source, int width, int height, boolean mirrored) {
+    }
+
+    private final int width;
+    private final int height;
+    private final IntBuffer pixels;
+    private final PixelBuffer<IntBuffer> pixelBuffer;
+    private final WritableImage image;
+
+    private final Map<Key, Pixels> decoded = new HashMap<>();
+    private double translateX = 0;
+    private int blits = 0;
+
+    /**
+     * @param width Frame width in pixels
+     * @param height Frame height in pixels
+     */
+    public PixelFrame(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.pixels = ByteBuffer.allocateDirect(width * height * 4).order(ByteOrder.nativeOrder()).asIntBuffer();
+        this.pixelBuffer = new PixelBuffer<>(width, height, pixels, PixelFormat.getIntArgbPreInstance());
+        this.image = new WritableImage(pixelBuffer);
+    }
+
+    /**
+     * Draw a new frame. The drawing runs while JavaFX expects the buffer
+     * to change, and the whole frame is marked dirty afterwards.
+     * @param drawing Calls to fill, drawImage and drawSprite
+     * @return Number of images and sprites copied
+     */
+    public int compose(Runnable drawing) {
+        blits = 0;
+        translateX = 0;
+        pixelBuffer.updateBuffer(buffer -> {
+            drawing.run();
+            return null;
+        });
+        return blits;
+    }
+
+    /**
+     * Get the image that shows the frame buffer
+     * @return The image, to draw once per frame
+     */
+    public Image getImage() {
+        return image;
+    }
+
+    /**
+     * Set the horizontal offset added to later draws, like GraphicsContext.translate
+     * @param translateX Offset in pixels
+     */
+    public void setTranslateX(double translateX) {
+        this.translateX = translateX;
+    }
+
+    /**
+     * Fill the whole frame with a color
+     * @param color The color
+     */
+    public void fill(Color color) {
+        int argb = toArgbPre(color);
+        for (int i = 0; i < width * height; i++) {
+            pixels.put(i, argb);
+        }
+    }
+
+    /**
+     * Draw a whole image scaled to a rectangle
+     * @param source The image
+     * @param x Destination X
+     * @param y Destination Y
+     * @param drawWidth Destination width
+     * @param drawHeight Destination height
+     */
+    public void drawImage(Image source, double x, double y, double drawWidth, double drawHeight) {
+        Pixels sprite = decode(source, 0, 0, (int) source.getWidth(), (int) source.getHeight(),
+                drawWidth, drawHeight, false);
+        blit(sprite, x, y);
+    }
+
+    /**
+     * Draw a sprite, following the rules of SpriteRegion.drawSprite
+     */
+    @Override
+    public void drawSprite(int entityId, SpriteRegion sprite, double x, double y, double drawWidth, double drawHeight,
+                           boolean mirrored) {
+        int sourceX = (int) sprite.getSourceX();
+        int sourceY = (int) sprite.getSourceY();
+        int sourceWidth = (int) sprite.getSourceWidth();
+        int sourceHeight = (int) sprite.getSourceHeight();
+        Pixels sized = SpriteVariants.isEnabled()
+                ? decode(sprite, sourceX, sourceY, sourceWidth, sourceHeight, sourceWidth, sourceHeight, false)
+                : decode(sprite, sourceX, sourceY, sourceWidth, sourceHeight, drawWidth, drawHeight, mirrored);
+        blit(sized, x, y);
+    }
+
+    /**
+     * Get the number of decoded images and sprites
+     * @return Cache size
+     */
+    public int getDecodedCount() {
+        return decoded.size();
+    }
+
+    /**
+     * Forget all decoded pixels. Entries are keyed by the image they came
+     * from, so they must be dropped when the images drawn are replaced
+     * (new level chunks, background tiles at another scale).
+     */
+    public void clearCache() {
+        decoded.clear();
+    }
+
+    /**
+     * Decode part of an image at its drawn size, once
+     * @param owner The SpriteRegion or Image the pixels belong to
+     */
+    private Pixels decode(Object owner, int sourceX, int sourceY, int sourceWidth, int sourceHeight,
+                          double drawWidth, double drawHeight, boolean mirrored) {
+        int targetWidth = Math.max(1, (int) Math.round(drawWidth));
+        int targetHeight = Math.max(1, (int) Math.round(drawHeight));
+        Key key = new Key(owner, targetWidth, targetHeight, mirrored);
+        Pixels result = decoded.get(key);
+        if (result != null) {
+            return result;
+        }
+
+        Image source = owner instanceof SpriteRegion region ? region.getImage() : (Image) owner;
+        int[] sourcePixels = new int[sourceWidth * sourceHeight];
+        PixelReader reader = source.getPixelReader();
+        if (reader != null) {
+            reader.getPixels(sourceX, sourceY, sourceWidth, sourceHeight,
+                    PixelFormat.getIntArgbPreInstance(), sourcePixels, 0, sourceWidth);
+        }
+
+        // Nearest-neighbour scaling (and mirroring) into the drawn size
+        int[] argb = new int[targetWidth * targetHeight];
+        boolean opaque = true;
+        for (int y = 0; y < targetHeight; y++) {
+            int row = (int) ((long) y * sourceHeight / targetHeight) * sourceWidth;
+            for (int x = 0; x < targetWidth; x++) {
+                int column = (int) ((long) x * sourceWidth / targetWidth);
+                int pixel = sourcePixels[row + (mirrored ? sourceWidth - 1 - column : column)];
+                argb[y * targetWidth + x] = pixel;
+                opaque &= pixel >>> 24 == 0xFF;
+            }
+        }
+        result = new Pixels(argb, targetWidth, targetHeight, opaque);
+        decoded.put(key, result);
+        return result;
+    }
+
+    /**
+     * Copy pixels into the frame, clipped to its bounds
+     */
+    private void blit(Pixels sprite, double x, double y) {
+        int left = (int) Math.round(x + translateX);
+        int top = (int) Math.round(y);
+        int startX = Math.max(0, left);
+        int endX = Math.min(width, left + sprite.width());
+        int startY = Math.max(0, top);
+        int endY = Math.min(height, top + sprite.height());
+        if (startX >= endX || startY >= endY) {
+            return;
+        }
+        blits++;
+
+        int[] argb = sprite.argb();
+        for (int row = startY; row < endY; row++) {
+            int sourceRow = (row - top) * sprite.width() - left;
+            int frameRow = row * width;
+            if (sprite.opaque()) {
+                pixels.put(frameRow + startX, argb, sourceRow + startX, endX - startX);
+                continue;
+            }
+            for (int column = startX; column < endX; column++) {
+                int pixel = argb[sourceRow + column];
+                int alpha = pixel >>> 24;
+                if (alpha == 0xFF) {
+                    pixels.put(frameRow + column, pixel);
+                } else if (alpha != 0) {
+                    pixels.put(frameRow + column, blend(pixel, pixels.get(frameRow + column)));
+                }
+            }
+        }
+    }
+
+    /**
+     * Premultiplied "source over" blend, two channels per multiply
+     */
+    private static int blend(int source, int destination) {
+        int inverse = 255 - (source >>> 24);
+        int redBlue = ((destination & 0x00FF00FF) * inverse >>> 8) & 0x00FF00FF;
+        int alphaGreen = ((destination >>> 8) & 0x00FF00FF) * inverse & 0xFF00FF00;
+        return source + (redBlue | alphaGreen);
+    }
+
+    private static int toArgbPre(Color color) {
+        int alpha = (int) Math.round(color.getOpacity() * 255);
+        int red = (int) Math.round(color.getRed() * color.getOpacity() * 255);
+        int green = (int) Math.round(color.getGreen() * color.getOpacity() * 255);
+        int blue = (int) Math.round(color.getBlue() * color.getOpacity() * 255);
+        return alpha << 24 | red << 16 | green << 8 | blue;
+    }
+}
@@ -0,0 +1,151 @@
+package com.rabbithop.screens;
+
+import com.rabbithop.SpriteRenderer;
+import com.rabbithop.entities.Coin;
+import com.rabbithop.entities.GameObject;
+import com.rabbithop.entities.ToxicBush;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.scene.Scene;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.layout.StackPane;
+import javafx.scene.paint.Color;
+import javafx.stage.Stage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares the sprite backends (drawImage on the canvas, the PixelFrame
+ * software renderer and retained ImageView nodes) as the number of visible
+ * sprites grows. For each entity count and backend it draws a fixed scene
+ * for a number of frames and reports the time spent on the JavaFX thread
+ * and the time between pulses (which also includes the render thread).
+ * Run it with
+ * -Djavafx.animation.fullspeed=true so pulses are not held to 60 Hz.
+ *
+ * Usage: RenderBenchmark [entity count ...]
+ */
+public class RenderBenchmark extends Application {
+
+    private static final int WIDTH = 1024;
+    private static final int HEIGHT = 768;
+    private static final int WARMUP_FRAMES = 60;
+    private static final int FRAMES = 300;
+    private static final int[] DEFAULT_COUNTS = {100, 500, 2000, 10000, 50000};
+    private static final String[] BACKENDS = {"canvas", "pixels", "scene"};
+
+    public static void main(String[] args) {
+        launch(args);
+    }
+
+    @Override
+    public void start(Stage stage) {
+        List<String> args = getParameters().getRaw();
+        int[] counts = args.isEmpty() ? DEFAULT_COUNTS : args.stream().mapToInt(Integer::parseInt).toArray();
+
+        Canvas canvas = new Canvas(WIDTH, HEIGHT);
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        SceneGraphRenderer sceneRenderer = new SceneGraphRenderer(WIDTH, HEIGHT);
+        CanvasRenderer canvasRenderer = new CanvasRenderer(gc);
+        stage.setScene(new Scene(new StackPane(canvas, sceneRenderer.getNode()), WIDTH, HEIGHT));
+        stage.setTitle("Render benchmark");
+        stage.show();
+
+        PixelFrame pixelFrame = new PixelFrame(WIDTH, HEIGHT);
+        System.out.println("entities  renderer   FX thread      frame");
+
+        new AnimationTimer() {
+            private int run = 0;
+            private int frame = 0;
+            private WorldSnapshot snapshot;
+            private long fxNanos;
+            private long firstPulse;
+
+            @Override
+            public void handle(long now) {
+                if (run == counts.length * BACKENDS.length) {
+                    stop();
+                    Platform.exit();
+                    return;
+                }
+                String backend = BACKENDS[run % BACKENDS.length];
+                int count = counts[run / BACKENDS.length];
+                if (frame == 0) {
+                    snapshot = createScene(count);
+                    sceneRenderer.clear();
+                    fxNanos = 0;
+                }
+
+                // Move every sprite a little each frame, so retained nodes have to be updated
+                double shift = frame % 2;
+                long start = System.nanoTime();
+                switch (backend) {
+                    case "pixels":
+                        pixelFrame.compose(() -> {
+                            pixelFrame.fill(Color.SKYBLUE);
+                            snapshot.render(shifted(pixelFrame, shift), 1.0, 0, WIDTH);
+                        });
+                        gc.drawImage(pixelFrame.getImage(), 0, 0);
+                        break;
+                    case "scene":
+                        gc.setFill(Color.SKYBLUE);
+                        gc.fillRect(0, 0, WIDTH, HEIGHT);
+                        sceneRenderer.beginFrame(0);
+                        snapshot.render(shifted(sceneRenderer, shift), 1.0, 0, WIDTH);
+                        sceneRenderer.endFrame();
+                        break;
+                    default:
+                        gc.setFill(Color.SKYBLUE);
+                        gc.fillRect(0, 0, WIDTH, HEIGHT);
+                        snapshot.render(shifted(canvasRenderer, shift), 1.0, 0, WIDTH);
+                        break;
+                }
+                long elapsed = System.nanoTime() - start;
+
+                frame++;
+                if (frame == WARMUP_FRAMES) {
+                    firstPulse = now;
+                } else if (frame > WARMUP_FRAMES) {
+                    fxNanos += elapsed;
+                }
+                if (frame == WARMUP_FRAMES + FRAMES) {
+                    System.out.printf("%8d  %-8s %7.3f ms %7.2f ms%n", count, backend,
+                            fxNanos / 1_000_000.0 / FRAMES, (now - firstPulse) / 1_000_000.0 / FRAMES);
+                    frame = 0;
+                    run++;
+                }
+            }
+        }.start();
+    }
+
+    /**
+     * Offset the sprites given to a renderer horizontally
+     */
+    private static SpriteRenderer shifted(SpriteRenderer renderer, double shift) {
+        return (id, sprite, x, y, width, height, mirrored) ->
+                renderer.drawSprite(id, sprite, x + shift, y, width, height, mirrored);
+    }
+
+    /**
+     * Scatter coins and bushes over the view
+     * @param count Number of entities
+     * @return Snapshot of the entities
+     */
+    private static WorldSnapshot createScene(int count) {
+        Random random = new Random(count);
+        List<GameObject> entities = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            double x = random.nextDouble() * (WIDTH - 48);
+            double y = random.nextDouble() * (HEIGHT - 48);
+            GameObject entity = i % 4 == 0 ? new ToxicBush(x, y) : new Coin(x, y);
+            entity.prepareSprite();
+            entities.add(entity);
+        }
+        return WorldSnapshot.capture(System.nanoTime(), 0, 0, null, entities);
+    }
+}
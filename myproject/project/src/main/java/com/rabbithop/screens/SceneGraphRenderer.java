@@ -0,0 +1,167 @@
+package com.rabbithop.screens;
+
+import com.rabbithop.SpriteRegion;
+import com.rabbithop.SpriteRenderer;
+import com.rabbithop.SpriteVariants;
+
+import javafx.geometry.Rectangle2D;
+import javafx.scene.CacheHint;
+import javafx.scene.Group;
+import javafx.scene.Node;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.Pane;
+import javafx.scene.shape.Rectangle;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Retained-mode backend: each entity keeps one cached ImageView across
+ * frames. A frame only sets what changed on it (translation, animation
+ * frame, draw order, visibility), and the camera moves the whole layer
+ * with one translation. JavaFX then redraws the cached node images
+ * instead of replaying drawImage calls. Must be used on the JavaFX thread.
+ */
+public class SceneGraphRenderer implements SpriteRenderer {
+
+    /**
+     * Node of one entity and the values last set on it
+     */
+    private static class Sprite {
+        final ImageView view = new ImageView();
+        SpriteRegion region;
+        double x = Double.NaN;
+        double y = Double.NaN;
+        int order = -1;
+        long frame;
+    }
+
+    private final Pane container = new Pane();
+    private final Group world = new Group();
+    private final Map<Integer, Sprite> sprites = new HashMap<>();
+    // SpriteRegion keeps identity equality, so this is an identity map that lets go of replaced regions
+    private final Map<SpriteRegion, Rectangle2D> viewports = new WeakHashMap<>();
+
+    private long frame = 0;
+    private int drawIndex;
+    private int visibleCount;
+    private int nodeUpdates;
+
+    /**
+     * @param width Width of the visible area
+     * @param height Height of the visible area
+     */
+    public SceneGraphRenderer(double width, double height) {
+        container.getChildren().add(world);
+        container.setClip(new Rectangle(width, height));
+        container.setMouseTransparent(true);
+        container.setPickOnBounds(false);
+    }
+
+    /**
+     * Get the node holding the sprites, to place over the canvas
+     * @return The container node
+     */
+    public Node getNode() {
+        return container;
+    }
+
+    /**
+     * Start a frame
+     * @param cameraX Camera position in the level
+     */
+    public void beginFrame(double cameraX) {
+        frame++;
+        drawIndex = 0;
+        visibleCount = 0;
+        nodeUpdates = 0;
+        world.setTranslateX(-cameraX);
+    }
+
+    @Override
+    public void drawSprite(int entityId, SpriteRegion region, double x, double y,
+                           double width, double height, boolean mirrored) {
+        Sprite sprite = sprites.get(entityId);
+        if (sprite == null) {
+            sprite = new Sprite();
+            sprite.view.setCache(true);
+            sprite.view.setCacheHint(CacheHint.SPEED);
+            sprite.view.setManaged(false);
+            sprites.put(entityId, sprite);
+            world.getChildren().add(sprite.view);
+        }
+        ImageView view = sprite.view;
+
+        // Animation frame
+        if (sprite.region != region) {
+            sprite.region = region;
+            view.setImage(region.getImage());
+            view.setViewport(viewports.computeIfAbsent(region, r -> new Rectangle2D(
+                    r.getSourceX(), r.getSourceY(), r.getSourceWidth(), r.getSourceHeight())));
+            if (!SpriteVariants.isEnabled()) {
+                view.setFitWidth(width);
+                view.setFitHeight(height);
+            }
+            nodeUpdates++;
+        }
+        if (!SpriteVariants.isEnabled()) {
+            view.setScaleX(mirrored ? -1 : 1);
+        }
+
+        // Position
+        if (x != sprite.x || y != sprite.y) {
+            sprite.x = x;
+            sprite.y = y;
+            view.setTranslateX(x);
+            view.setTranslateY(y);
+            nodeUpdates++;
+        }
+
+        // Later draws are in front, as on the canvas
+        if (sprite.order != drawIndex) {
+            sprite.order = drawIndex;
+            view.setViewOrder(-drawIndex);
+            nodeUpdates++;
+        }
+        drawIndex++;
+
+        if (!view.isVisible()) {
+            view.setVisible(true);
+            nodeUpdates++;
+        }
+        sprite.frame = frame;
+        visibleCount++;
+    }
+
+    /**
+     * Finish a frame: hide the nodes of entities that were not drawn
+     * @return Number of visible sprites
+     */
+    public int endFrame() {
+        for (Sprite sprite : sprites.values()) {
+            if (sprite.frame != frame && sprite.view.isVisible()) {
+                sprite.view.setVisible(false);
+                nodeUpdates++;
+            }
+        }
+        return visibleCount;
+    }
+
+    /**
+     * Remove all nodes, e.g. for a new level or when another backend takes over
+     */
+    public void clear() {
+        world.getChildren().clear();
+        sprites.clear();
+        viewports.clear();
+    }
+
+    /**
+     * Get the number of node properties changed in the last frame
+     * @return Update count
+     */
+    public int getNodeUpdates() {
+        return nodeUpdates;
+    }
+}
@@ -1,6 +1,7 @@
 package com.rabbithop.screens;
 
 import com.rabbithop.GameManager;
+import com.rabbithop.ImageCache;
 import javafx.scene.Scene;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
@@ -34,7 +35,8 @@ public abstract class Screen {
     }
 
     protected void addClouds() {
-        Image cloudImage = new Image("file:resources/cloud.png");  
+        // Shared decoded image, not a new load per call
+        Image cloudImage = ImageCache.get("/images/cloud.png");
         ImageView cloudView = new ImageView(cloudImage);
         cloudView.setFitWidth(200);  
         cloudView.setFitHeight(100);
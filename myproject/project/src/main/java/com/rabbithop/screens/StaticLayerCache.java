@@ -0,0 +1,130 @@
+package com.rabbithop.screens;
+
+import com.rabbithop.SpriteRegion;
+import com.rabbithop.entities.GameObject;
+
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+
+import java.util.List;
+
+/**
+ * Pre-rendered images of the level parts that never move (platforms and
+ * the ground). The level is cut into vertical chunks of CHUNK_WIDTH
+ * pixels, each drawn once when the level is set up; a frame then draws
+ * only the two or three chunks under the camera, however many platforms
+ * the level has. Must be built and drawn on the JavaFX thread.
+ *
+ * Disable with -Drabbithop.staticCache=false to compare render times.
+ */
+public class StaticLayerCache {
+
+    public static final int CHUNK_WIDTH = 512;
+
+    private static final boolean ENABLED =
+            !"false".equals(System.getProperty("rabbithop.staticCache"));
+
+    private WritableImage[] chunks = new WritableImage[0];
+    private double top;
+    private double height;
+
+    /**
+     * Rasterize the static entities into chunks
+     * @param objects Entities that never move, back to front
+     * @param levelWidth Width of the level in pixels
+     * @param levelHeight Height of the level in pixels
+     * @param pixelScale Output scale of the screen, so HiDPI chunks stay sharp
+     */
+    public void build(List<? extends GameObject> objects, double levelWidth, double levelHeight, double pixelScale) {
+        // Chunks only need to cover the rows that contain something
+        top = levelHeight;
+        double bottom = 0;
+        for (GameObject object : objects) {
+            top = Math.min(top, Math.floor(object.getY()));
+            bottom = Math.max(bottom, Math.ceil(object.getY() + object.getHeight()));
+        }
+        height = Math.max(0, bottom - top);
+
+        int chunkCount = (int) Math.ceil(levelWidth / CHUNK_WIDTH);
+        chunks = new WritableImage[height > 0 ? chunkCount : 0];
+        if (chunks.length == 0) {
+            return;
+        }
+
+        Canvas canvas = new Canvas(CHUNK_WIDTH * pixelScale, height * pixelScale);
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        SnapshotParameters parameters = new SnapshotParameters();
+        parameters.setFill(Color.TRANSPARENT);
+
+        for (int i = 0; i < chunks.length; i++) {
+            double chunkLeft = i * CHUNK_WIDTH;
+            double chunkRight = chunkLeft + CHUNK_WIDTH;
+
+            gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+            gc.save();
+            gc.scale(pixelScale, pixelScale);
+            gc.translate(-chunkLeft, -top);
+            for (GameObject object : objects) {
+                if (object.getX() + object.getWidth() <= chunkLeft || object.getX() >= chunkRight) {
+                    continue;
+                }
+                SpriteRegion sprite = object.getCurrentSprite();
+                if (sprite != null) {
+                    sprite.drawSprite(gc, object.getX(), object.getY(),
+                            object.getWidth(), object.getHeight(), object.isMirrored());
+                }
+            }
+            gc.restore();
+            chunks[i] = canvas.snapshot(parameters, null);
+        }
+    }
+
+    /**
+     * Draw the chunks that overlap the visible range
+     * @param gc Graphics context to draw on (already translated by the camera)
+     * @param viewLeft Left edge of the view in world coordinates
+     * @param viewRight Right edge of the view in world coordinates
+     * @return Number of chunks drawn
+     */
+    public int render(GraphicsContext gc, double viewLeft, double viewRight) {
+        int first = Math.max(0, (int) Math.floor(viewLeft / CHUNK_WIDTH));
+        int last = Math.min(chunks.length - 1, (int) Math.floor(viewRight / CHUNK_WIDTH));
+        for (int i = first; i <= last; i++) {
+            gc.drawImage(chunks[i], i * CHUNK_WIDTH, top, CHUNK_WIDTH, height);
+        }
+        return Math.max(0, last - first + 1);
+    }
+
+    /**
+     * Draw the chunks that overlap the visible range into a software frame
+     * @param frame The frame (already translated by the camera)
+     * @param viewLeft Left edge of the view in world coordinates
+     * @param viewRight Right edge of the view in world coordinates
+     */
+    public void render(PixelFrame frame, double viewLeft, double viewRight) {
+        int first = Math.max(0, (int) Math.floor(viewLeft / CHUNK_WIDTH));
+        int last = Math.min(chunks.length - 1, (int) Math.floor(viewRight / CHUNK_WIDTH));
+        for (int i = first; i <= last; i++) {
+            frame.drawImage(chunks[i], i * CHUNK_WIDTH, top, CHUNK_WIDTH, height);
+        }
+    }
+
+    /**
+     * Get the number of chunks
+     * @return Chunk count
+     */
+    public int getChunkCount() {
+        return chunks.length;
+    }
+
+    /**
+     * Check if the cache is used
+     * @return true unless disabled by the system property
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+}
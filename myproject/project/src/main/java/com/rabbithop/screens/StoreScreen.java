@@ -214,7 +214,7 @@ public class StoreScreen extends Screen {
         // Item image
         ImageView imageView = new ImageView();
         try {
-            Image image = new Image(getClass().getResourceAsStream(imagePath));
+            Image image = ImageCache.get(imagePath);
             imageView.setImage(image);
             imageView.setFitWidth(64);
             imageView.setFitHeight(64);
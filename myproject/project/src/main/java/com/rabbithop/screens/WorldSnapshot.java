@@ -0,0 +1,156 @@
+package com.rabbithop.screens;
+
+import com.rabbithop.SpriteRegion;
+import com.rabbithop.SpriteRenderer;
+import com.rabbithop.engine.TickTimer;
+import com.rabbithop.entities.GameObject;
+
+import java.util.List;
+
+/**
+ * Immutable picture of the game world after a simulation tick.
+ * The simulation thread captures one after each batch of ticks and
+ * publishes it; rendering only reads the latest published snapshot, so the
+ * two threads never touch the same entity objects and need no locks.
+ */
+public final class WorldSnapshot {
+
+    private final long time;
+    private final double prevCameraX;
+    private final double cameraX;
+    private final TickTimer.Timings timings;
+
+    // One entry per sprite, in draw order
+    private int count = 0;
+    private final int[] ids;
+    private final SpriteRegion[] sprites;
+    private final double[] prevXs;
+    private final double[] prevYs;
+    private final double[] xs;
+    private final double[] ys;
+    private final double[] widths;
+    private final double[] heights;
+    private final boolean[] mirrored;
+
+    private WorldSnapshot(long time, double prevCameraX, double cameraX,
+                          TickTimer.Timings timings, int capacity) {
+        this.time = time;
+        this.prevCameraX = prevCameraX;
+        this.cameraX = cameraX;
+        this.timings = timings;
+        this.ids = new int[capacity];
+        this.sprites = new SpriteRegion[capacity];
+        this.prevXs = new double[capacity];
+        this.prevYs = new double[capacity];
+        this.xs = new double[capacity];
+        this.ys = new double[capacity];
+        this.widths = new double[capacity];
+        this.heights = new double[capacity];
+        this.mirrored = new boolean[capacity];
+    }
+
+    /**
+     * Capture the drawable state of the world.
+     * Must be called by the thread that owns the entities.
+     * @param time System.nanoTime() of the tick
+     * @param prevCameraX Camera X before the tick
+     * @param cameraX Camera X after the tick
+     * @param timings Profiler timings of the ticks since the last snapshot, or null
+     * @param layers Entity lists, back to front
+     * @return The snapshot
+     */
+    @SafeVarargs
+    public static WorldSnapshot capture(long time, double prevCameraX, double cameraX,
+                                        TickTimer.Timings timings,
+                                        List<? extends GameObject>... layers) {
+        int capacity = 0;
+        for (List<? extends GameObject> layer : layers) {
+            capacity += layer.size();
+        }
+
+        WorldSnapshot snapshot = new WorldSnapshot(time, prevCameraX, cameraX, timings, capacity);
+        for (List<? extends GameObject> layer : layers) {
+            for (GameObject object : layer) {
+                snapshot.add(object);
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Record one entity (skipped if it has nothing to draw)
+     * @param object The entity
+     */
+    private void add(GameObject object) {
+        SpriteRegion sprite = object.getCurrentSprite();
+        if (sprite == null) {
+            return;
+        }
+
+        ids[count] = object.getId();
+        sprites[count] = sprite;
+        prevXs[count] = object.getPrevX();
+        prevYs[count] = object.getPrevY();
+        xs[count] = object.getX();
+        ys[count] = object.getY();
+        widths[count] = object.getWidth();
+        heights[count] = object.getHeight();
+        mirrored[count] = object.isMirrored();
+        count++;
+    }
+
+    /**
+     * Draw all sprites that overlap the visible range
+     * @param renderer Backend to draw with (already translated by the camera)
+     * @param alpha Interpolation factor between the previous and current tick
+     * @param viewLeft Left edge of the view in world coordinates
+     * @param viewRight Right edge of the view in world coordinates
+     * @return Number of sprites drawn
+     */
+    public int render(SpriteRenderer renderer, double alpha, double viewLeft, double viewRight) {
+        int drawn = 0;
+        for (int i = 0; i < count; i++) {
+            double x = prevXs[i] + (xs[i] - prevXs[i]) * alpha;
+            if (x + widths[i] < viewLeft || x > viewRight) {
+                continue;
+            }
+            double y = prevYs[i] + (ys[i] - prevYs[i]) * alpha;
+            renderer.drawSprite(ids[i], sprites[i], x, y, widths[i], heights[i], mirrored[i]);
+            drawn++;
+        }
+        return drawn;
+    }
+
+    /**
+     * Get the camera position between the previous and current tick
+     * @param alpha Interpolation factor
+     * @return Camera X
+     */
+    public double getCameraX(double alpha) {
+        return prevCameraX + (cameraX - prevCameraX) * alpha;
+    }
+
+    /**
+     * Get the time the snapshot was captured
+     * @return System.nanoTime() of the tick
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * Get the profiler timings of the ticks behind this snapshot
+     * @return The timings, or null if the profiler was off
+     */
+    public TickTimer.Timings getTimings() {
+        return timings;
+    }
+
+    /**
+     * Get the number of sprites in the snapshot
+     * @return Sprite count
+     */
+    public int getSpriteCount() {
+        return count;
+    }
+}
@@ -2,10 +2,13 @@ module com.rabbithop {
     requires javafx.controls;
     requires javafx.fxml;
     requires javafx.media;  // Make sure this is included
+    requires java.management;
+    requires jdk.management;
     requires transitive javafx.graphics;
     
     opens com.rabbithop to javafx.fxml;
     exports com.rabbithop;
     exports com.rabbithop.screens;
     exports com.rabbithop.entities;
+    exports com.rabbithop.engine;
 }
\ No newline at end of file